@@ -1,7 +1,12 @@
 package com.example.bankcards.config;
 
 import com.example.bankcards.repository.UserRepository;
+import com.example.bankcards.security.BCryptStrengthCalibrator;
+import com.example.bankcards.security.TimedPasswordEncoder;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -13,11 +18,20 @@ import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.time.Duration;
+
+@Slf4j
 @Configuration
 @RequiredArgsConstructor
 public class ApplicationConfig {
 
     private final UserRepository userRepository;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.security.password-hashing.bcrypt-strength:10}")
+    private int bcryptStrength;
+    @Value("${app.security.password-hashing.calibration-target:}")
+    private Duration calibrationTarget;
 
     @Bean
     public UserDetailsService userDetailsService() {
@@ -38,8 +52,17 @@ public class ApplicationConfig {
         return config.getAuthenticationManager();
     }
 
+    /**
+     * BCrypt at the configured strength or, when a calibration target is set, at the highest strength this machine
+     * hashes within it, never below the configured one. Existing hashes keep verifying at their own strength.
+     */
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        int strength = bcryptStrength;
+        if (calibrationTarget != null) {
+            strength = BCryptStrengthCalibrator.calibrate(calibrationTarget, bcryptStrength, 16);
+            log.info("Calibrated BCrypt strength {} for a target hash time of {} ms", strength, calibrationTarget.toMillis());
+        }
+        return new TimedPasswordEncoder(new BCryptPasswordEncoder(strength), meterRegistry);
     }
 }
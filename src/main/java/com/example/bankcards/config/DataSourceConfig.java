@@ -0,0 +1,71 @@
+package com.example.bankcards.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds the primary pool from {@code spring.datasource}, one pool per URL in {@code app.datasource.replicas.urls}
+ * with the primary's credentials and pool settings, and exposes both through a {@link ReplicaRoutingDataSource}.
+ * Without replica URLs every connection comes from the primary.
+ */
+@Configuration
+public class DataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(
+            HikariDataSource primaryDataSource,
+            MeterRegistry meterRegistry,
+            @Value("${app.datasource.replicas.urls:}") List<String> replicaUrls,
+            @Value("${app.datasource.replicas.max-lag:PT5S}") Duration maxLag,
+            @Value("${app.datasource.replicas.read-your-writes-window:PT10S}") Duration readYourWritesWindow) {
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (String url : replicaUrls) {
+            String name = "replica-" + (replicas.size() + 1);
+            replicas.put(name, replicaPool(primaryDataSource, name, url.trim(), meterRegistry));
+        }
+        return new ReplicaRoutingDataSource(primaryDataSource, replicas, maxLag, readYourWritesWindow, meterRegistry);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+
+    /**
+     * Copies the primary's settings into a pool that starts on first use, so a replica that is down
+     * at startup only keeps its reads on the primary instead of failing the application.
+     */
+    private static HikariDataSource replicaPool(HikariDataSource primary, String name, String url,
+                                                MeterRegistry meterRegistry) {
+        HikariDataSource replica = new HikariDataSource();
+        primary.copyStateTo(replica);
+        replica.setPoolName(name);
+        replica.setJdbcUrl(url);
+        replica.setReadOnly(true);
+        replica.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+        return replica;
+    }
+}
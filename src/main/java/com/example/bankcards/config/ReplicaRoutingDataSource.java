@@ -0,0 +1,241 @@
+package com.example.bankcards.config;
+
+import com.example.bankcards.security.UserPrincipal;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Routes connections of {@code @Transactional(readOnly = true)} work to streaming replicas and everything else,
+ * including work outside a transaction, to the primary.
+ * <p>
+ * A replica only receives reads while its replay lag, sampled every {@code app.datasource.replicas.lag-check-interval},
+ * is within {@code max-lag}; a replica that is behind or unreachable is skipped, and with no usable replica reads
+ * fall back to the primary. After a user commits a read-write transaction, that user's reads stay on the primary
+ * for {@code read-your-writes-window}, so a transfer's new balances show up on the next listing. A change made on
+ * behalf of a user by someone else pins that user with {@link #pinToPrimary}; a change spanning many users, such
+ * as a scheduled job, pins all reads with {@link #pinAllToPrimary}. The window is tracked per application instance.
+ * <p>
+ * The read-only flag is only known once the transaction has begun, so this data source has to sit behind a
+ * {@link LazyConnectionDataSourceProxy} that fetches the connection on the first statement.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements Closeable {
+
+    static final String PRIMARY = "primary";
+
+    private static final String PRIMARY_LSN_QUERY = "SELECT pg_current_wal_lsn()::text";
+    // A replica that has replayed past the primary's current position is caught up even when the primary is idle;
+    // otherwise the age of the last replayed commit bounds how stale it is.
+    private static final String REPLICA_LAG_QUERY = "SELECT NOT pg_is_in_recovery() OR pg_last_wal_replay_lsn() >= ?::pg_lsn, "
+            + "EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp())";
+
+    private final DataSource primary;
+    private final List<Replica> replicas;
+    private final Duration maxLag;
+    private final Duration readYourWritesWindow;
+    private final Cache<Long, Boolean> recentWriters;
+    // System.nanoTime() until which every read goes to the primary
+    private final AtomicLong allPinnedUntil = new AtomicLong(System.nanoTime());
+    private final AtomicInteger nextReplica = new AtomicInteger();
+
+    private final Counter writeRoutings;
+    private final Counter readYourWritesRoutings;
+    private final Counter fallbackRoutings;
+
+    public ReplicaRoutingDataSource(DataSource primary, Map<String, DataSource> replicas, Duration maxLag,
+                                    Duration readYourWritesWindow, MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.maxLag = maxLag;
+        this.readYourWritesWindow = readYourWritesWindow;
+        this.recentWriters = Caffeine.newBuilder()
+                .expireAfterWrite(readYourWritesWindow)
+                .build();
+        this.replicas = replicas.entrySet().stream()
+                .map(replica -> new Replica(replica.getKey(), replica.getValue(), meterRegistry))
+                .toList();
+
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        this.replicas.forEach(replica -> targets.put(replica.name, replica.dataSource));
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+
+        this.writeRoutings = routingCounter(meterRegistry, PRIMARY, "read_write");
+        this.readYourWritesRoutings = routingCounter(meterRegistry, PRIMARY, "read_your_writes");
+        this.fallbackRoutings = routingCounter(meterRegistry, PRIMARY, "no_replica");
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        Long userId = currentUserId();
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            rememberWriterOnCommit(userId);
+            writeRoutings.increment();
+            return PRIMARY;
+        }
+        if (System.nanoTime() - allPinnedUntil.get() < 0
+                || userId != null && recentWriters.getIfPresent(userId) != null) {
+            readYourWritesRoutings.increment();
+            return PRIMARY;
+        }
+
+        int replicaCount = replicas.size();
+        int start = Math.floorMod(nextReplica.getAndIncrement(), Math.max(replicaCount, 1));
+        for (int i = 0; i < replicaCount; i++) {
+            Replica replica = replicas.get((start + i) % replicaCount);
+            if (replica.usable) {
+                replica.routings.increment();
+                return replica.name;
+            }
+        }
+        fallbackRoutings.increment();
+        return PRIMARY;
+    }
+
+    /**
+     * Measures every replica's replay lag against the primary's current WAL position and marks replicas
+     * that are too far behind, or cannot be reached, as unusable until the next check.
+     */
+    @Scheduled(fixedDelayString = "${app.datasource.replicas.lag-check-interval:PT2S}")
+    public void checkReplicaLag() {
+        if (replicas.isEmpty()) {
+            return;
+        }
+        String primaryLsn;
+        try (Connection connection = primary.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(PRIMARY_LSN_QUERY)) {
+            resultSet.next();
+            primaryLsn = resultSet.getString(1);
+        } catch (SQLException e) {
+            // without the primary's position the lag is unknown; keep the last verdict rather than flapping
+            log.warn("Could not read the primary WAL position for the replica lag check: {}", e.getMessage());
+            return;
+        }
+        replicas.forEach(replica -> replica.updateLag(primaryLsn, maxLag));
+    }
+
+    /**
+     * Keeps {@code userId}'s reads on the primary for the read-your-writes window, for when someone else
+     * changed that user's data, such as an admin.
+     */
+    public void pinToPrimary(Long userId) {
+        recentWriters.put(userId, Boolean.TRUE);
+    }
+
+    /**
+     * Keeps every read on the primary for the read-your-writes window, for a committed change that touched
+     * the data of many users at once.
+     */
+    public void pinAllToPrimary() {
+        long until = System.nanoTime() + readYourWritesWindow.toNanos();
+        allPinnedUntil.accumulateAndGet(until, (current, next) -> next - current > 0 ? next : current);
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (Replica replica : replicas) {
+            if (replica.dataSource instanceof Closeable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+    private void rememberWriterOnCommit(Long userId) {
+        if (userId == null || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                recentWriters.put(userId, Boolean.TRUE);
+            }
+        });
+    }
+
+    private static Long currentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.getPrincipal() instanceof UserPrincipal principal
+                ? principal.id()
+                : null;
+    }
+
+    private static Counter routingCounter(MeterRegistry meterRegistry, String target, String reason) {
+        return Counter.builder("bank.datasource.routings")
+                .description("Connections handed out by the replica routing data source")
+                .tag("target", target)
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    private static final class Replica {
+
+        private final String name;
+        private final DataSource dataSource;
+        private final Counter routings;
+        // unusable until the first lag check has passed
+        private volatile boolean usable;
+        private volatile double lagSeconds = Double.NaN;
+
+        private Replica(String name, DataSource dataSource, MeterRegistry meterRegistry) {
+            this.name = name;
+            this.dataSource = dataSource;
+            this.routings = routingCounter(meterRegistry, name, "read_only");
+            Gauge.builder("bank.datasource.replica.lag", this, replica -> replica.lagSeconds)
+                    .description("Replay lag of the replica at the last check; NaN while it cannot be measured")
+                    .baseUnit("seconds")
+                    .tag("replica", name)
+                    .register(meterRegistry);
+        }
+
+        private void updateLag(String primaryLsn, Duration maxLag) {
+            double lag;
+            try (Connection connection = dataSource.getConnection();
+                 PreparedStatement statement = connection.prepareStatement(REPLICA_LAG_QUERY)) {
+                statement.setString(1, primaryLsn);
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    resultSet.next();
+                    boolean caughtUp = resultSet.getBoolean(1);
+                    double sinceLastReplay = resultSet.getDouble(2);
+                    lag = caughtUp ? 0 : resultSet.wasNull() ? Double.NaN : Math.max(sinceLastReplay, 0);
+                }
+            } catch (SQLException e) {
+                log.warn("Replica '{}' is unreachable, routing its reads to the primary: {}", name, e.getMessage());
+                lag = Double.NaN;
+            }
+
+            boolean nowUsable = !Double.isNaN(lag) && lag * 1000 <= maxLag.toMillis();
+            if (nowUsable != usable) {
+                log.info("Replica '{}' is now {} (lag {} s)", name, nowUsable ? "in use" : "skipped", lag);
+            }
+            lagSeconds = lag;
+            usable = nowUsable;
+        }
+    }
+}
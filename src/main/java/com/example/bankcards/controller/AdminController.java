@@ -1,12 +1,19 @@
 package com.example.bankcards.controller;
 
 import com.example.bankcards.dto.AdminCardCreateRequestDto;
+import com.example.bankcards.dto.CardBalanceShardsUpdateRequestDto;
 import com.example.bankcards.dto.CardDto;
+import com.example.bankcards.dto.CardExportFormat;
+import com.example.bankcards.dto.CardImportResponseDto;
+import com.example.bankcards.dto.CursorPage;
 import com.example.bankcards.dto.UserDto;
 import com.example.bankcards.dto.UserLockStatusUpdateRequestDto;
 import com.example.bankcards.dto.UserRoleUpdateRequestDto;
 import com.example.bankcards.entity.enums.CardStatus;
 import com.example.bankcards.service.AdminService;
+import com.example.bankcards.service.CardExportService;
+import com.example.bankcards.service.CardImportService;
+import com.example.bankcards.util.EntityTags;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
@@ -16,7 +23,10 @@ import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -25,8 +35,15 @@ import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 
 @RequiredArgsConstructor
 @RequestMapping("/api/v1/admin")
@@ -36,7 +53,11 @@ import org.springframework.web.bind.annotation.RestController;
 @RestController
 public class AdminController {
 
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
     private final AdminService adminService;
+    private final CardExportService cardExportService;
+    private final CardImportService cardImportService;
 
     @Operation(summary = "Create a new card", description = "Creates a new card for a specified user.")
     @ApiResponses(value = {
@@ -50,6 +71,19 @@ public class AdminController {
         return new ResponseEntity<>(createdCard, HttpStatus.CREATED);
     }
 
+    @Operation(summary = "Import cards from CSV",
+            description = "Issues cards in bulk from a CSV body with the header userId,cardNumber,expiryDate,initialBalance. " +
+                    "Valid rows are committed in chunks; every rejected row is reported with its line number and reason.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Import finished; see the report for rejected rows"),
+            @ApiResponse(responseCode = "400", description = "Missing or unexpected CSV header"),
+            @ApiResponse(responseCode = "403", description = "Access denied")
+    })
+    @PostMapping(value = "/cards/import", consumes = "text/csv")
+    public ResponseEntity<CardImportResponseDto> importCards(InputStream body) throws IOException {
+        return ResponseEntity.ok(cardImportService.importCards(body));
+    }
+
     @Operation(summary = "Get all cards", description = "Returns a paginated list of all cards in the system.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Successfully retrieved list"),
@@ -60,15 +94,86 @@ public class AdminController {
         return ResponseEntity.ok(adminService.getAllCards(pageable));
     }
 
-    @Operation(summary = "Update card status", description = "Updates the status of a specific card (e.g., ACTIVE, BLOCKED).")
+    @Operation(summary = "Get cards by cursor",
+            description = "Returns cards in id order after the given cursor, optionally filtered by status and owner. " +
+                    "Pass the returned nextCursor as 'after' to fetch the next page; it is null on the last page.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved page"),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor or limit"),
+            @ApiResponse(responseCode = "403", description = "Access denied")
+    })
+    @GetMapping("/cards/cursor")
+    public ResponseEntity<CursorPage<CardDto>> getCardsByCursor(
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "50") int limit,
+            @RequestParam(required = false) CardStatus status,
+            @RequestParam(required = false) Long userId) {
+        return ResponseEntity.ok(adminService.getCardsAfter(after, limit, status, userId));
+    }
+
+    @Operation(summary = "Export all cards",
+            description = "Streams every card as NDJSON (one JSON object per line) or CSV, for reconciliation.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Export streamed"),
+            @ApiResponse(responseCode = "403", description = "Access denied")
+    })
+    @GetMapping("/cards/export")
+    public ResponseEntity<StreamingResponseBody> exportCards(
+            @RequestParam(defaultValue = "NDJSON") CardExportFormat format) {
+        boolean csv = format == CardExportFormat.CSV;
+        StreamingResponseBody body = outputStream -> cardExportService.exportCards(format, outputStream);
+        return ResponseEntity.ok()
+                .contentType(csv ? new MediaType("text", "csv", StandardCharsets.UTF_8) : NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename(csv ? "cards.csv" : "cards.ndjson")
+                        .build()
+                        .toString())
+                .body(body);
+    }
+
+    @Operation(summary = "Find a card by number", description = "Looks up a card by its full card number using the blind index.")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Status updated successfully"),
+            @ApiResponse(responseCode = "200", description = "Card found"),
+            @ApiResponse(responseCode = "400", description = "Card not found"),
+            @ApiResponse(responseCode = "403", description = "Access denied")
+    })
+    @GetMapping("/cards/by-number")
+    public ResponseEntity<CardDto> getCardByNumber(@RequestParam String cardNumber) {
+        return ResponseEntity.ok(adminService.getCardByNumber(cardNumber));
+    }
+
+    @Operation(summary = "Update card status",
+            description = "Updates the status of a specific card (e.g., ACTIVE, BLOCKED). With If-Match set to the " +
+                    "card's version as a quoted ETag (e.g. \"3\"), the update only applies if nobody changed the card since.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Status updated successfully; the ETag holds the new version"),
             @ApiResponse(responseCode = "403", description = "Access denied"),
-            @ApiResponse(responseCode = "404", description = "Card not found")
+            @ApiResponse(responseCode = "404", description = "Card not found"),
+            @ApiResponse(responseCode = "409", description = "The card was changed concurrently"),
+            @ApiResponse(responseCode = "412", description = "If-Match does not match the card's current version")
     })
     @PatchMapping("/cards/{id}/status")
-    public ResponseEntity<CardDto> updateCardStatus(@PathVariable Long id, @RequestBody CardStatus newStatus) {
-        return ResponseEntity.ok(adminService.updateCardStatus(id, newStatus));
+    public ResponseEntity<CardDto> updateCardStatus(
+            @PathVariable Long id,
+            @RequestBody CardStatus newStatus,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        CardDto card = adminService.updateCardStatus(id, newStatus, EntityTags.requiredVersion(ifMatch));
+        return ResponseEntity.ok().eTag(EntityTags.ofVersion(card.version())).body(card);
+    }
+
+    @Operation(summary = "Shard a card's balance",
+            description = "Spreads credits to a hot card over the given number of balance shards; 0 turns sharding off. "
+                    + "Pending shard balances are folded into the card before the change.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Shard count updated successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid shard count"),
+            @ApiResponse(responseCode = "403", description = "Access denied"),
+            @ApiResponse(responseCode = "404", description = "Card not found")
+    })
+    @PatchMapping("/cards/{id}/balance-shards")
+    public ResponseEntity<CardDto> updateCardBalanceShards(
+            @PathVariable Long id, @Valid @RequestBody CardBalanceShardsUpdateRequestDto request) {
+        return ResponseEntity.ok(adminService.updateCardBalanceShards(id, request.shards()));
     }
 
     @Operation(summary = "Delete a card", description = "Deletes a specific card by its ID.")
@@ -92,6 +197,21 @@ public class AdminController {
         return ResponseEntity.ok(adminService.getAllUsers(pageable));
     }
 
+    @Operation(summary = "Get users by cursor",
+            description = "Returns users in id order after the given cursor. " +
+                    "Pass the returned nextCursor as 'after' to fetch the next page; it is null on the last page.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved page"),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor or limit"),
+            @ApiResponse(responseCode = "403", description = "Access denied")
+    })
+    @GetMapping("/users/cursor")
+    public ResponseEntity<CursorPage<UserDto>> getUsersByCursor(
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(adminService.getUsersAfter(after, limit));
+    }
+
     @Operation(summary = "Get user by ID", description = "Returns details for a specific user by their ID.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "User found"),
@@ -3,6 +3,7 @@ package com.example.bankcards.controller;
 import com.example.bankcards.dto.AuthRequestDto;
 import com.example.bankcards.dto.AuthResponseDto;
 import com.example.bankcards.dto.RegisterRequestDto;
+import com.example.bankcards.security.PasswordHashingExecutor;
 import com.example.bankcards.service.AuthService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -15,6 +16,12 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Both endpoints are dominated by BCrypt, so they run on the {@link PasswordHashingExecutor} and release the
+ * request thread while they wait; when that pool is saturated they answer 503 at once.
+ */
 @RequiredArgsConstructor
 @RequestMapping("/api/v1/auth")
 @Tag(name = "Auth Controller", description = "Endpoints for user registration and login.")
@@ -22,24 +29,29 @@ import org.springframework.web.bind.annotation.RestController;
 public class AuthController {
 
     private final AuthService authService;
+    private final PasswordHashingExecutor passwordHashingExecutor;
 
     @Operation(summary = "Register a new user", description = "Creates a new user account and returns a JWT token.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "User registered successfully"),
-            @ApiResponse(responseCode = "400", description = "Invalid user data provided")
+            @ApiResponse(responseCode = "400", description = "Invalid user data provided"),
+            @ApiResponse(responseCode = "503", description = "Too many logins in progress, retry after the Retry-After delay")
     })
     @PostMapping("/register")
-    public ResponseEntity<AuthResponseDto> register(@RequestBody RegisterRequestDto request) {
-        return ResponseEntity.ok(authService.register(request));
+    public CompletableFuture<ResponseEntity<AuthResponseDto>> register(@RequestBody RegisterRequestDto request) {
+        return passwordHashingExecutor.submit(() -> authService.register(request))
+                .thenApply(ResponseEntity::ok);
     }
 
     @Operation(summary = "Authenticate a user", description = "Authenticates credentials and returns a JWT token if successful.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Authentication successful"),
-            @ApiResponse(responseCode = "403", description = "Invalid credentials")
+            @ApiResponse(responseCode = "403", description = "Invalid credentials"),
+            @ApiResponse(responseCode = "503", description = "Too many logins in progress, retry after the Retry-After delay")
     })
     @PostMapping("/login")
-    public ResponseEntity<AuthResponseDto> authenticate(@RequestBody AuthRequestDto request) {
-        return ResponseEntity.ok(authService.authenticate(request));
+    public CompletableFuture<ResponseEntity<AuthResponseDto>> authenticate(@RequestBody AuthRequestDto request) {
+        return passwordHashingExecutor.submit(() -> authService.authenticate(request))
+                .thenApply(ResponseEntity::ok);
     }
 }
@@ -1,8 +1,10 @@
 package com.example.bankcards.controller;
 
 import com.example.bankcards.dto.CardDto;
-import com.example.bankcards.entity.User;
+import com.example.bankcards.dto.VersionedPage;
+import com.example.bankcards.security.UserPrincipal;
 import com.example.bankcards.service.CardService;
+import com.example.bankcards.util.EntityTags;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
@@ -11,11 +13,14 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
@@ -36,20 +41,31 @@ public class CardController {
             @ApiResponse(responseCode = "404", description = "Card not found")
     })
     @PostMapping("/{id}/block")
-    public ResponseEntity<Void> blockCard(@PathVariable Long id, @AuthenticationPrincipal User user) {
+    public ResponseEntity<Void> blockCard(@PathVariable Long id, @AuthenticationPrincipal UserPrincipal user) {
         cardService.requestCardBlock(id, user);
         return ResponseEntity.ok().build();
     }
 
-    @Operation(summary = "Get my cards", description = "Returns a paginated list of cards belonging to the authenticated user.")
+    @Operation(summary = "Get my cards",
+            description = "Returns a paginated list of cards belonging to the authenticated user, with a weak ETag. " +
+                    "Send it back in If-None-Match to get 304 Not Modified while none of the user's cards has changed.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Successfully retrieved list of cards"),
+            @ApiResponse(responseCode = "304", description = "The cards have not changed since the given ETag"),
             @ApiResponse(responseCode = "403", description = "Access Denied")
     })
     @GetMapping
     public ResponseEntity<Page<CardDto>> getMyCards(
-            @AuthenticationPrincipal User user,
-            Pageable pageable) {
-        return ResponseEntity.ok(cardService.getUserCards(user, pageable));
+            @AuthenticationPrincipal UserPrincipal user,
+            Pageable pageable,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        if (ifNoneMatch != null) {
+            String eTag = cardService.getUserCardsETag(user, pageable);
+            if (EntityTags.noneMatchHits(ifNoneMatch, eTag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+            }
+        }
+        VersionedPage<CardDto> cards = cardService.getUserCards(user, pageable);
+        return ResponseEntity.ok().eTag(cards.eTag()).body(cards.page());
     }
 }
@@ -1,18 +1,23 @@
 package com.example.bankcards.controller;
 
+import com.example.bankcards.dto.BatchTransferRequestDto;
+import com.example.bankcards.dto.BatchTransferResponseDto;
 import com.example.bankcards.dto.TransferRequestDto;
-import com.example.bankcards.entity.User;
+import com.example.bankcards.security.UserPrincipal;
 import com.example.bankcards.service.TransferService;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
@@ -23,11 +28,14 @@ import org.springframework.web.bind.annotation.RestController;
 @RestController
 public class TransferController {
 
+    private static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    private static final String IDEMPOTENT_REPLAYED_HEADER = "Idempotent-Replayed";
+
     private final TransferService transferService;
 
     @Operation(summary = "Perform a transfer", description = "Transfers a specified amount from one of the user's cards to another.")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Transfer successful"),
+            @ApiResponse(responseCode = "200", description = "Transfer successful, or replay of a completed transfer with the same Idempotency-Key"),
             @ApiResponse(responseCode = "400", description = "Invalid transfer request (e.g., insufficient funds, expired card)"),
             @ApiResponse(responseCode = "403", description = "Access Denied (not the card owner)"),
             @ApiResponse(responseCode = "404", description = "One or both cards not found")
@@ -35,8 +43,28 @@ public class TransferController {
     @PostMapping
     public ResponseEntity<Void> transferMoney(
             @RequestBody TransferRequestDto transferRequestDto,
-            @AuthenticationPrincipal User user) {
-        transferService.performTransfer(transferRequestDto, user);
+            @Parameter(description = "Client-generated key; retries with the same key are applied at most once")
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+            @AuthenticationPrincipal UserPrincipal user) {
+        boolean replayed = transferService.performTransfer(transferRequestDto, user, idempotencyKey);
+        if (replayed) {
+            return ResponseEntity.ok().header(IDEMPOTENT_REPLAYED_HEADER, "true").build();
+        }
         return ResponseEntity.ok().build();
     }
+
+    @Operation(summary = "Perform a batch of transfers",
+            description = "Executes several transfers between the user's cards in one transaction. " +
+                    "ALL_OR_NOTHING (default) rolls back the whole batch on the first failure, " +
+                    "BEST_EFFORT commits every transfer that succeeds and reports the rest.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Batch committed; per-item results in the body"),
+            @ApiResponse(responseCode = "400", description = "Invalid batch, or an ALL_OR_NOTHING batch was rolled back")
+    })
+    @PostMapping("/batch")
+    public ResponseEntity<BatchTransferResponseDto> transferMoneyInBatch(
+            @Valid @RequestBody BatchTransferRequestDto batchTransferRequestDto,
+            @AuthenticationPrincipal UserPrincipal user) {
+        return ResponseEntity.ok(transferService.performBatchTransfer(batchTransferRequestDto, user));
+    }
 }
@@ -0,0 +1,8 @@
+package com.example.bankcards.dto;
+
+public enum BatchTransferMode {
+    /** Any failed transfer rolls back the whole batch. */
+    ALL_OR_NOTHING,
+    /** Failed transfers are reported and skipped; the rest are committed. */
+    BEST_EFFORT
+}
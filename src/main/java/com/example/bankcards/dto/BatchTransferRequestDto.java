@@ -0,0 +1,18 @@
+package com.example.bankcards.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+
+import java.util.List;
+
+public record BatchTransferRequestDto(
+
+        BatchTransferMode mode,
+
+        @NotEmpty(message = "Batch must contain at least one transfer")
+        List<TransferRequestDto> transfers
+) {
+
+    public BatchTransferMode modeOrDefault() {
+        return mode != null ? mode : BatchTransferMode.ALL_OR_NOTHING;
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.bankcards.dto;
+
+import java.util.List;
+
+public record BatchTransferResponseDto(
+        BatchTransferMode mode,
+        boolean committed,
+        int completed,
+        int failed,
+        List<TransferResultDto> results
+) {
+}
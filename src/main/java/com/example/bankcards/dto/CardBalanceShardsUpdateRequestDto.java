@@ -0,0 +1,14 @@
+package com.example.bankcards.dto;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+
+/**
+ * Number of balance shards for a hot card; 0 turns sharding off.
+ */
+public record CardBalanceShardsUpdateRequestDto(
+        @Min(value = 0, message = "Shard count must not be negative")
+        @Max(value = 64, message = "Shard count must not exceed 64")
+        int shards
+) {
+}
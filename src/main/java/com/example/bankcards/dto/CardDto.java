@@ -10,6 +10,7 @@ public record CardDto(
         String ownerName,
         LocalDate expiryDate,
         CardStatus status,
-        BigDecimal balance
+        BigDecimal balance,
+        Long version
 ) {
 }
@@ -0,0 +1,19 @@
+package com.example.bankcards.dto;
+
+import java.util.List;
+
+public record CardImportResponseDto(
+        long imported,
+        long failed,
+        List<RowError> errors
+) {
+
+    /**
+     * A rejected row, by its 1-based line number in the uploaded file (the header is line 1).
+     */
+    public record RowError(
+            long line,
+            String error
+    ) {
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.bankcards.dto;
+
+import com.example.bankcards.entity.enums.CardStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Read-only projection of a card row used by listings. It deliberately omits the encrypted card number.
+ */
+public record CardSummary(
+        Long id,
+        String cardNumberLast4,
+        Integer cardNumberLength,
+        String ownerName,
+        LocalDate expiryDate,
+        CardStatus status,
+        BigDecimal balance,
+        Long version
+) {
+}
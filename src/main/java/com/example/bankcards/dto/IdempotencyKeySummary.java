@@ -0,0 +1,12 @@
+package com.example.bankcards.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read-only projection of a stored idempotency key: the fingerprint of the request it was claimed for and when.
+ */
+public record IdempotencyKeySummary(
+        String requestHash,
+        LocalDateTime createdAt
+) {
+}
@@ -0,0 +1,14 @@
+package com.example.bankcards.dto;
+
+public record TransferResultDto(
+        int index,
+        Status status,
+        String error
+) {
+
+    public enum Status {
+        COMPLETED,
+        FAILED,
+        NOT_APPLIED
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.bankcards.dto;
+
+import org.springframework.data.domain.Page;
+
+/**
+ * A page together with the entity tag of the data it was loaded from, sent as its {@code ETag}.
+ */
+public record VersionedPage<T>(
+        String eTag,
+        Page<T> page
+) {
+}
@@ -14,6 +14,7 @@ import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import lombok.Data;
 
 import java.math.BigDecimal;
@@ -32,6 +33,17 @@ public class Card {
     @Convert(converter = CardNumberConverter.class)
     private String cardNumber;
 
+    @Column(name = "card_number_last4", length = 4)
+    @Convert(disableConversion = true)
+    private String cardNumberLast4;
+
+    @Column(name = "card_number_length")
+    private Integer cardNumberLength;
+
+    @Column(name = "card_number_hash", length = 64, unique = true)
+    @Convert(disableConversion = true)
+    private String cardNumberHash;
+
     @Column(name = "expiry_date", nullable = false)
     private LocalDate expiryDate;
 
@@ -42,6 +54,21 @@ public class Card {
     @Column(name = "balance", nullable = false)
     private BigDecimal balance;
 
+    /**
+     * Number of {@link CardBalanceShard} rows that credits to this card are spread over; 0 for ordinary cards.
+     * Changed only through {@code CardBalanceShardService}, never by flushing the entity.
+     */
+    @Column(name = "balance_shards", insertable = false, updatable = false)
+    private int balanceShards;
+
+    /**
+     * Incremented on every update of the row, including the native ones, which bump it themselves.
+     * {@code balanceShards} changes do not count, since they do not change what the card shows.
+     */
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
@@ -0,0 +1,44 @@
+package com.example.bankcards.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+
+/**
+ * Part of a hot card's balance. Credits to a card with {@code balance_shards > 0} land on one of its shard rows
+ * instead of the card row; the card's balance is {@code cards.balance} plus the sum of its shards until
+ * compaction folds them back.
+ */
+@Data
+@Entity
+@Table(name = "card_balance_shards")
+@IdClass(CardBalanceShard.Key.class)
+public class CardBalanceShard {
+
+    @Id
+    @Column(name = "card_id")
+    private Long cardId;
+
+    @Id
+    @Column(name = "shard")
+    private Integer shard;
+
+    @Column(name = "balance", nullable = false)
+    private BigDecimal balance;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Long cardId;
+        private Integer shard;
+    }
+}
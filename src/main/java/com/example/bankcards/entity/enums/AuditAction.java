@@ -0,0 +1,17 @@
+package com.example.bankcards.entity.enums;
+
+/**
+ * What an audit event records; the target id is a card for card actions, a user for user actions
+ * and the source card for transfers.
+ */
+public enum AuditAction {
+    CARD_CREATED,
+    CARDS_IMPORTED,
+    CARD_STATUS_CHANGED,
+    CARD_BALANCE_SHARDS_CHANGED,
+    CARD_DELETED,
+    USER_ROLE_CHANGED,
+    USER_LOCKED,
+    USER_UNLOCKED,
+    TRANSFER
+}
@@ -0,0 +1,18 @@
+package com.example.bankcards.exception;
+
+import com.example.bankcards.dto.BatchTransferResponseDto;
+import lombok.Getter;
+
+/**
+ * Thrown when an all-or-nothing batch fails, so the transaction rolls back while the per-item results still reach the client.
+ */
+@Getter
+public class BatchTransferException extends CardOperationException {
+
+    private final transient BatchTransferResponseDto response;
+
+    public BatchTransferException(String message, BatchTransferResponseDto response) {
+        super(message);
+        this.response = response;
+    }
+}
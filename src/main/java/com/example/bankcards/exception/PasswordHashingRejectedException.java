@@ -0,0 +1,19 @@
+package com.example.bankcards.exception;
+
+import lombok.Getter;
+
+import java.time.Duration;
+
+/**
+ * Thrown when the password hashing queue is full, so the client is told to retry later instead of waiting behind it.
+ */
+@Getter
+public class PasswordHashingRejectedException extends RuntimeException {
+
+    private final transient Duration retryAfter;
+
+    public PasswordHashingRejectedException(Duration retryAfter) {
+        super("The service is busy authenticating other users, please retry later.");
+        this.retryAfter = retryAfter;
+    }
+}
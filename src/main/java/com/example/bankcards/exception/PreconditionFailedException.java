@@ -0,0 +1,11 @@
+package com.example.bankcards.exception;
+
+/**
+ * Thrown when a conditional request's {@code If-Match} does not match the current version of the resource,
+ * so the change would overwrite one the client has not seen.
+ */
+public class PreconditionFailedException extends RuntimeException {
+    public PreconditionFailedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.bankcards.exception;
+
+import lombok.Getter;
+
+/**
+ * Thrown when a transfer is rejected by a business rule. The reason is a fixed category suitable for metric tags,
+ * while the message is what the client sees.
+ */
+@Getter
+public class TransferFailedException extends CardOperationException {
+
+    private final Reason reason;
+
+    public TransferFailedException(Reason reason, String message) {
+        super(message);
+        this.reason = reason;
+    }
+
+    public enum Reason {
+        INVALID_REQUEST,
+        SAME_CARD,
+        CARD_NOT_FOUND,
+        ACCESS_DENIED,
+        CARD_EXPIRED,
+        CARD_NOT_ACTIVE,
+        INSUFFICIENT_FUNDS,
+        NON_POSITIVE_AMOUNT
+    }
+}
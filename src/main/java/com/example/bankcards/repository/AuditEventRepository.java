@@ -0,0 +1,72 @@
+package com.example.bankcards.repository;
+
+import com.example.bankcards.entity.enums.AuditAction;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Appends audit events with one statement per batch: each column is sent as an array and unnested server-side,
+ * as in {@link CardBulkInsertRepositoryImpl}.
+ */
+@Repository
+@RequiredArgsConstructor
+public class AuditEventRepository {
+
+    private static final String INSERT_EVENTS = """
+            insert into audit_events (occurred_at, actor_id, actor_username, action, target_id, details)
+            select * from unnest(?::timestamptz[], ?::bigint[], ?::varchar[], ?::varchar[], ?::bigint[], ?::varchar[])
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void insertAll(List<AuditEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        int size = events.size();
+        Timestamp[] occurredAt = new Timestamp[size];
+        Long[] actorIds = new Long[size];
+        String[] actorUsernames = new String[size];
+        String[] actions = new String[size];
+        Long[] targetIds = new Long[size];
+        String[] details = new String[size];
+        for (int i = 0; i < size; i++) {
+            AuditEvent event = events.get(i);
+            occurredAt[i] = Timestamp.from(event.occurredAt());
+            actorIds[i] = event.actorId();
+            actorUsernames[i] = event.actorUsername();
+            actions[i] = event.action().name();
+            targetIds[i] = event.targetId();
+            details[i] = event.details();
+        }
+
+        jdbcTemplate.update(connection -> {
+            var statement = connection.prepareStatement(INSERT_EVENTS);
+            statement.setArray(1, connection.createArrayOf("timestamptz", occurredAt));
+            statement.setArray(2, connection.createArrayOf("int8", actorIds));
+            statement.setArray(3, connection.createArrayOf("varchar", actorUsernames));
+            statement.setArray(4, connection.createArrayOf("varchar", actions));
+            statement.setArray(5, connection.createArrayOf("int8", targetIds));
+            statement.setArray(6, connection.createArrayOf("varchar", details));
+            return statement;
+        });
+    }
+
+    /**
+     * One audit entry; {@code actorId} and {@code actorUsername} are null for work not done on behalf of a user.
+     */
+    public record AuditEvent(
+            Instant occurredAt,
+            Long actorId,
+            String actorUsername,
+            AuditAction action,
+            Long targetId,
+            String details
+    ) {
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.bankcards.repository;
+
+import com.example.bankcards.entity.CardBalanceShard;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Repository
+public interface CardBalanceShardRepository extends JpaRepository<CardBalanceShard, CardBalanceShard.Key> {
+
+    /**
+     * Adds {@code amount} to one shard row, locking only that row. Shard rows are created when a card is sharded,
+     * so this normally takes the update path; the insert path only covers a shard count that grew in between.
+     */
+    @Modifying
+    @Query(value = "insert into card_balance_shards (card_id, shard, balance) values (:cardId, :shard, :amount) " +
+            "on conflict (card_id, shard) do update set balance = card_balance_shards.balance + excluded.balance",
+            nativeQuery = true)
+    int credit(@Param("cardId") Long cardId, @Param("shard") int shard, @Param("amount") BigDecimal amount);
+
+    /**
+     * Zeroes the card's committed shard balances and returns their sum. Each row is locked and re-read first,
+     * so a credit committing concurrently is either fully folded or left for the next fold, never lost.
+     * The caller must hold the card row lock and add the result to {@code cards.balance} in the same transaction.
+     */
+    @Query(value = "with folded as (" +
+            "update card_balance_shards s set balance = 0 " +
+            "from (select card_id, shard, balance from card_balance_shards " +
+            "where card_id = :cardId and balance <> 0 for update) old " +
+            "where s.card_id = old.card_id and s.shard = old.shard " +
+            "returning old.balance) " +
+            "select coalesce(sum(balance), 0) from folded", nativeQuery = true)
+    BigDecimal fold(@Param("cardId") Long cardId);
+
+    @Modifying
+    @Query(value = "insert into card_balance_shards (card_id, shard, balance) " +
+            "select :cardId, shard, 0 from generate_series(0, :count - 1) shard on conflict do nothing",
+            nativeQuery = true)
+    int createShards(@Param("cardId") Long cardId, @Param("count") int count);
+
+    @Modifying
+    @Query(value = "delete from card_balance_shards where card_id = :cardId and balance = 0", nativeQuery = true)
+    int deleteEmptyShards(@Param("cardId") Long cardId);
+
+    @Query("select distinct s.cardId from CardBalanceShard s where s.balance <> 0")
+    List<Long> findCardIdsWithShardBalance();
+}
@@ -0,0 +1,30 @@
+package com.example.bankcards.repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Inserts many cards in one statement, bypassing the entity and its converter: card numbers arrive already
+ * encrypted, so the caller can encrypt a whole chunk in parallel before a connection is taken.
+ */
+public interface CardBulkInsertRepository {
+
+    /**
+     * Inserts every card that does not collide with an existing card number and returns the blind indexes
+     * of the inserted ones. Must run inside a transaction.
+     */
+    Set<String> insertIgnoringDuplicates(List<NewCard> cards);
+
+    record NewCard(
+            Long userId,
+            String encryptedCardNumber,
+            String cardNumberLast4,
+            int cardNumberLength,
+            String cardNumberHash,
+            LocalDate expiryDate,
+            BigDecimal balance
+    ) {
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.bankcards.repository;
+
+import com.example.bankcards.entity.enums.CardStatus;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Sends each column as one array parameter and unnests them server-side, so a chunk of any size is a single
+ * statement and round trip; {@code on conflict do nothing returning} reports exactly which rows went in.
+ */
+@RequiredArgsConstructor
+public class CardBulkInsertRepositoryImpl implements CardBulkInsertRepository {
+
+    private static final String INSERT_CARDS = """
+            insert into cards (user_id, card_number, card_number_last4, card_number_length, card_number_hash,
+                               expiry_date, status, balance)
+            select user_id, card_number, card_number_last4, card_number_length, card_number_hash,
+                   expiry_date, ?, balance
+            from unnest(?::bigint[], ?::varchar[], ?::varchar[], ?::int[], ?::varchar[], ?::date[], ?::numeric[])
+                   as c(user_id, card_number, card_number_last4, card_number_length, card_number_hash,
+                        expiry_date, balance)
+            on conflict do nothing
+            returning card_number_hash
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public Set<String> insertIgnoringDuplicates(List<NewCard> cards) {
+        if (cards.isEmpty()) {
+            return Set.of();
+        }
+        int size = cards.size();
+        Long[] userIds = new Long[size];
+        String[] cardNumbers = new String[size];
+        String[] lastFourDigits = new String[size];
+        Integer[] lengths = new Integer[size];
+        String[] hashes = new String[size];
+        String[] expiryDates = new String[size];
+        String[] balances = new String[size];
+        for (int i = 0; i < size; i++) {
+            NewCard card = cards.get(i);
+            userIds[i] = card.userId();
+            cardNumbers[i] = card.encryptedCardNumber();
+            lastFourDigits[i] = card.cardNumberLast4();
+            lengths[i] = card.cardNumberLength();
+            hashes[i] = card.cardNumberHash();
+            expiryDates[i] = card.expiryDate().toString();
+            balances[i] = card.balance().toPlainString();
+        }
+
+        List<String> inserted = jdbcTemplate.query(connection -> {
+            var statement = connection.prepareStatement(INSERT_CARDS);
+            statement.setString(1, CardStatus.ACTIVE.name());
+            statement.setArray(2, connection.createArrayOf("int8", userIds));
+            statement.setArray(3, connection.createArrayOf("varchar", cardNumbers));
+            statement.setArray(4, connection.createArrayOf("varchar", lastFourDigits));
+            statement.setArray(5, connection.createArrayOf("int4", lengths));
+            statement.setArray(6, connection.createArrayOf("varchar", hashes));
+            statement.setArray(7, connection.createArrayOf("varchar", expiryDates));
+            statement.setArray(8, connection.createArrayOf("varchar", balances));
+            return statement;
+        }, (resultSet, rowNum) -> resultSet.getString(1));
+        return new HashSet<>(inserted);
+    }
+}
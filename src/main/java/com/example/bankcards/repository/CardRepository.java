@@ -1,19 +1,162 @@
 package com.example.bankcards.repository;
 
+import com.example.bankcards.dto.CardSummary;
 import com.example.bankcards.entity.Card;
-import com.example.bankcards.entity.User;
 import com.example.bankcards.entity.enums.CardStatus;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface CardRepository extends JpaRepository<Card, Long> {
-    Page<Card> findByUser(User user, Pageable pageable);
+public interface CardRepository extends JpaRepository<Card, Long>, CardBulkInsertRepository {
 
-    List<Card> findAllByStatusAndExpiryDateBefore(CardStatus status, LocalDate date);
+    int EXPORT_FETCH_SIZE = 1000;
+
+    /**
+     * Select clause of every {@link CardSummary} query. The balance includes the card's shard balances,
+     * which stay in {@code card_balance_shards} until compaction folds them into {@code cards.balance}.
+     */
+    String CARD_SUMMARY = "select new com.example.bankcards.dto.CardSummary(" +
+            "c.id, c.cardNumberLast4, c.cardNumberLength, u.ownerName, c.expiryDate, c.status, " +
+            "c.balance + coalesce((select sum(s.balance) from CardBalanceShard s where s.cardId = c.id), 0), c.version) ";
+
+    @Query(value = CARD_SUMMARY + "from Card c join c.user u where u.id = :userId",
+            countQuery = "select count(c) from Card c where c.user.id = :userId")
+    Page<CardSummary> findSummariesByUserId(@Param("userId") Long userId, Pageable pageable);
+
+    @Query(value = CARD_SUMMARY + "from Card c join c.user u",
+            countQuery = "select count(c) from Card c")
+    Page<CardSummary> findAllSummaries(Pageable pageable);
+
+    /**
+     * Streams every card as an unmanaged projection through a server-side cursor, {@value #EXPORT_FETCH_SIZE} rows
+     * per round trip. Must be consumed inside a read-only transaction and closed afterwards.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + EXPORT_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query(CARD_SUMMARY + "from Card c join c.user u order by c.id")
+    Stream<CardSummary> streamAllSummaries();
+
+    @Query(CARD_SUMMARY + "from Card c join c.user u where c.id = :id")
+    Optional<CardSummary> findSummaryById(@Param("id") Long id);
+
+    @Query(CARD_SUMMARY + "from Card c join c.user u where c.cardNumberHash = :cardNumberHash")
+    Optional<CardSummary> findSummaryByCardNumberHash(@Param("cardNumberHash") String cardNumberHash);
+
+    /**
+     * Fingerprint of everything a user's card listing shows, read without touching the cards' contents: the number
+     * of cards, the highest id and the sum of their versions. Any insert, delete or versioned update changes it.
+     * Shard credits do not bump the destination's version, but every one comes from a transfer that debits
+     * another card of the same user, which does.
+     */
+    @Query(value = "select count(*) || '-' || coalesce(max(id), 0) || '-' || coalesce(sum(version), 0) " +
+            "from cards where user_id = :userId", nativeQuery = true)
+    String findCardsVersionByUserId(@Param("userId") Long userId);
+
+    @EntityGraph(attributePaths = "user")
+    Optional<Card> findWithUserById(Long id);
+
+    @Query("select c.user.id from Card c where c.id = :id")
+    Optional<Long> findUserIdById(@Param("id") Long id);
+
+    // Keyset pages: each variant walks an index in id order and stops after the limit, without counting.
+
+    @Query(CARD_SUMMARY + "from Card c join c.user u where c.id > :afterId order by c.id")
+    List<CardSummary> findSummariesAfter(@Param("afterId") long afterId, Limit limit);
+
+    @Query(CARD_SUMMARY + "from Card c join c.user u where c.status = :status and c.id > :afterId order by c.id")
+    List<CardSummary> findSummariesByStatusAfter(
+            @Param("status") CardStatus status, @Param("afterId") long afterId, Limit limit);
+
+    @Query(CARD_SUMMARY + "from Card c join c.user u where u.id = :userId and c.id > :afterId order by c.id")
+    List<CardSummary> findSummariesByUserIdAfter(
+            @Param("userId") Long userId, @Param("afterId") long afterId, Limit limit);
+
+    @Query(CARD_SUMMARY +
+            "from Card c join c.user u where u.id = :userId and c.status = :status and c.id > :afterId order by c.id")
+    List<CardSummary> findSummariesByUserIdAndStatusAfter(
+            @Param("userId") Long userId, @Param("status") CardStatus status, @Param("afterId") long afterId, Limit limit);
+
+    boolean existsByCardNumberHash(String cardNumberHash);
+
+    /**
+     * Locks the given cards with {@code SELECT ... FOR UPDATE} in ascending id order,
+     * so concurrent transfers touching the same cards always acquire their locks in the same order.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select c from Card c where c.id in :ids order by c.id")
+    List<Card> findAllByIdForUpdate(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Like {@link #findAllByIdForUpdate}, but locks only those of the cards that belong to {@code userId}, so a request
+     * naming another user's card cannot hold a lock on it. Ids missing from the result are not the user's cards.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select c from Card c where c.id in :ids and c.user.id = :userId order by c.id")
+    List<Card> findAllByIdAndUserIdForUpdate(@Param("ids") Collection<Long> ids, @Param("userId") Long userId);
+
+    @Query("select c.id from Card c where c.balanceShards > 0")
+    List<Long> findShardedCardIds();
+
+    @Modifying
+    @Query(value = "update cards set balance_shards = :count where id = :id", nativeQuery = true)
+    int updateBalanceShards(@Param("id") Long id, @Param("count") int count);
+
+    /**
+     * Runs the whole transfer inside the {@code transfer_between_cards} database function in one round trip.
+     * Returns 0 on success, otherwise the result code documented in the bank_V005 changeset.
+     */
+    @Query(value = "select transfer_between_cards(:userId, :fromCardId, :toCardId, :amount)", nativeQuery = true)
+    int transferBetweenCards(@Param("userId") Long userId,
+                             @Param("fromCardId") Long fromCardId,
+                             @Param("toCardId") Long toCardId,
+                             @Param("amount") BigDecimal amount);
+
+    @Query("select c from Card c " +
+            "where (c.cardNumberLast4 is null or c.cardNumberHash is null) and c.id > :afterId order by c.id")
+    List<Card> findWithMissingDerivedColumns(@Param("afterId") Long afterId, Limit limit);
+
+    /**
+     * Writes only the columns derived from the card number, so a concurrent transfer's balance or a status change
+     * committed since the card was read is left alone. Bumps the version, since the masked number shown changes.
+     */
+    @Modifying
+    @Query("update Card c set c.cardNumberLast4 = :last4, c.cardNumberLength = :length, c.cardNumberHash = :hash, " +
+            "c.version = c.version + 1 where c.id = :id")
+    int updateDerivedColumns(@Param("id") Long id,
+                             @Param("last4") String last4,
+                             @Param("length") int length,
+                             @Param("hash") String hash);
+
+    /**
+     * Expires up to {@code chunkSize} active cards whose expiry date is before {@code today} and commits them
+     * in its own transaction. Served by the partial index {@code idx_cards_active_expiry_date}.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "update cards set status = 'EXPIRED', version = version + 1 where status = 'ACTIVE' and id in (" +
+            "select id from cards where status = 'ACTIVE' and expiry_date < :today limit :chunkSize)",
+            nativeQuery = true)
+    int expireActiveCardsBefore(@Param("today") LocalDate today, @Param("chunkSize") int chunkSize);
 }
@@ -0,0 +1,48 @@
+package com.example.bankcards.repository;
+
+import com.example.bankcards.dto.IdempotencyKeySummary;
+import com.example.bankcards.entity.TransferIdempotencyKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface TransferIdempotencyKeyRepository extends JpaRepository<TransferIdempotencyKey, Long> {
+
+    /**
+     * Claims the key for the current transaction. Returns 0 when a live row already holds it; a concurrent claim
+     * of the same key blocks on the unique index until the other transaction commits or rolls back.
+     * A row older than {@code expiredBefore} is taken over as if it had been purged.
+     */
+    @Modifying
+    @Query(value = "insert into transfer_idempotency_keys (user_id, idempotency_key, request_hash, created_at) " +
+            "values (:userId, :key, :requestHash, :createdAt) " +
+            "on conflict (user_id, idempotency_key) do update " +
+            "set request_hash = excluded.request_hash, created_at = excluded.created_at " +
+            "where transfer_idempotency_keys.created_at < :expiredBefore", nativeQuery = true)
+    int claim(@Param("userId") Long userId,
+              @Param("key") String key,
+              @Param("requestHash") String requestHash,
+              @Param("createdAt") LocalDateTime createdAt,
+              @Param("expiredBefore") LocalDateTime expiredBefore);
+
+    @Query("select new com.example.bankcards.dto.IdempotencyKeySummary(k.requestHash, k.createdAt) " +
+            "from TransferIdempotencyKey k where k.userId = :userId and k.idempotencyKey = :key")
+    Optional<IdempotencyKeySummary> findRequestHash(@Param("userId") Long userId, @Param("key") String key);
+
+    /**
+     * Deletes up to {@code batchSize} expired keys in its own transaction, so purging never holds long locks.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "delete from transfer_idempotency_keys where id in (" +
+            "select id from transfer_idempotency_keys where created_at < :expiredBefore order by id limit :batchSize)",
+            nativeQuery = true)
+    int deleteExpiredBatch(@Param("expiredBefore") LocalDateTime expiredBefore, @Param("batchSize") int batchSize);
+}
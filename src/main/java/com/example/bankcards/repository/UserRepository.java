@@ -1,13 +1,36 @@
 package com.example.bankcards.repository;
 
+import com.example.bankcards.dto.UserDto;
 import com.example.bankcards.entity.User;
+import com.example.bankcards.security.UserPrincipal;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
 
+    // Login and principal lookups run in a read-write transaction so they are always served by the primary:
+    // a lagging replica could still report a freshly locked user as unlocked.
+    @Transactional
     Optional<User> findByUsername(String username);
+
+    @Transactional
+    @Query("select new com.example.bankcards.security.UserPrincipal(u.id, u.username, u.role, u.locked) " +
+            "from User u where u.id = :id")
+    Optional<UserPrincipal> findPrincipalById(@Param("id") Long id);
+
+    @Query("select new com.example.bankcards.dto.UserDto(u.id, u.username, u.ownerName, u.role) " +
+            "from User u where u.id > :afterId order by u.id")
+    List<UserDto> findUsersAfter(@Param("afterId") long afterId, Limit limit);
+
+    @Query("select u.id from User u where u.id in :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
 }
@@ -0,0 +1,53 @@
+package com.example.bankcards.security;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.time.Duration;
+
+/**
+ * Picks the BCrypt strength for this machine: the highest one whose single hash still fits a latency target.
+ * Each strength step doubles the cost, so the search stops at the first strength that exceeds the target.
+ */
+public final class BCryptStrengthCalibrator {
+
+    private static final String SAMPLE_PASSWORD = "calibration-password";
+    private static final int SAMPLES = 3;
+
+    private BCryptStrengthCalibrator() {
+    }
+
+    /**
+     * Returns the highest strength between {@code minStrength} and {@code maxStrength} whose fastest of a few
+     * hashes takes no longer than {@code target}, or {@code minStrength} if even that one is slower.
+     */
+    public static int calibrate(Duration target, int minStrength, int maxStrength) {
+        if (minStrength < 4 || maxStrength > 31 || minStrength > maxStrength) {
+            throw new IllegalArgumentException("BCrypt strength must be between 4 and 31, got "
+                    + minStrength + ".." + maxStrength);
+        }
+        // hash once untimed so class loading and JIT warm-up are not charged to the first strength
+        new BCryptPasswordEncoder(4).encode(SAMPLE_PASSWORD);
+
+        int strength = minStrength;
+        while (strength < maxStrength && fitsWithin(strength + 1, target)) {
+            strength++;
+        }
+        return strength;
+    }
+
+    /**
+     * Whether any of a few hashes at {@code strength} completes within {@code target}; taking the best attempt
+     * keeps a GC pause or a busy neighbour from lowering the strength.
+     */
+    private static boolean fitsWithin(int strength, Duration target) {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(strength);
+        for (int i = 0; i < SAMPLES; i++) {
+            long start = System.nanoTime();
+            encoder.encode(SAMPLE_PASSWORD);
+            if (System.nanoTime() - start <= target.toNanos()) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -1,27 +1,38 @@
 package com.example.bankcards.security;
 
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import lombok.RequiredArgsConstructor;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 @Component
-@RequiredArgsConstructor
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
-    private final UserDetailsService userDetailsService;
+    private final UserPrincipalCache userPrincipalCache;
+    private final Timer validTokenTimer;
+    private final Timer invalidTokenTimer;
+
+    public JwtAuthenticationFilter(JwtService jwtService, UserPrincipalCache userPrincipalCache,
+                                   MeterRegistry meterRegistry) {
+        this.jwtService = jwtService;
+        this.userPrincipalCache = userPrincipalCache;
+        this.validTokenTimer = validationTimer(meterRegistry, "valid");
+        this.invalidTokenTimer = validationTimer(meterRegistry, "invalid");
+    }
 
     @Override
     protected void doFilterInternal(
@@ -31,7 +42,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     ) throws ServletException, IOException {
         final String authHeader = request.getHeader("Authorization");
         final String jwt;
-        final String username;
+        final Optional<Claims> claims;
 
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
             filterChain.doFilter(request, response);
@@ -39,15 +50,25 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
 
         jwt = authHeader.substring(7);
-        username = jwtService.extractUsername(jwt);
+        long validationStartedAt = System.nanoTime();
+        claims = jwtService.resolveClaims(jwt);
+        (claims.isPresent() ? validTokenTimer : invalidTokenTimer)
+                .record(System.nanoTime() - validationStartedAt, TimeUnit.NANOSECONDS);
+
+        if (claims.isPresent() && SecurityContextHolder.getContext().getAuthentication() == null) {
+            Long userId = claims.get().get("userId", Long.class);
+            String username = claims.get().getSubject();
+            Optional<UserPrincipal> principal = userId == null
+                    ? Optional.empty()
+                    : userPrincipalCache.get(userId)
+                    .filter(candidate -> candidate.getUsername().equals(username))
+                    .filter(UserPrincipal::isAccountNonLocked);
 
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
-            if (jwtService.isTokenValid(jwt, userDetails)) {
+            if (principal.isPresent()) {
                 UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                        userDetails,
+                        principal.get(),
                         null,
-                        userDetails.getAuthorities()
+                        principal.get().getAuthorities()
                 );
                 authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                 SecurityContextHolder.getContext().setAuthentication(authToken);
@@ -55,4 +76,11 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
         filterChain.doFilter(request, response);
     }
-}
\ No newline at end of file
+
+    private static Timer validationTimer(MeterRegistry meterRegistry, String result) {
+        return Timer.builder("bank.jwt.validations")
+                .description("Bearer token verification, including verified-claims cache hits")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.bankcards.security;
+
+import com.example.bankcards.exception.PasswordHashingRejectedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Runs logins and registrations, which spend almost all their time in BCrypt, on a fixed pool of platform threads
+ * sized to the CPU and a bounded queue, so a login storm cannot occupy request threads or more cores than the pool.
+ * <p>
+ * Work that finds the queue full is rejected at once with {@link PasswordHashingRejectedException}, which the API
+ * answers with 503 and a {@code Retry-After} header, instead of queueing logins behind seconds of hashing.
+ * Pool and queue gauges and the time tasks wait in the queue are published under {@code executor.*} tagged
+ * {@code name=password_hashing}; rejections are counted in {@code bank.auth.password.hashing.rejected}.
+ */
+@Slf4j
+@Component
+public class PasswordHashingExecutor implements DisposableBean {
+
+    private final ThreadPoolExecutor pool;
+    private final ExecutorService executor;
+    private final Duration retryAfter;
+    private final Counter rejections;
+
+    public PasswordHashingExecutor(
+            @Value("${app.security.password-hashing.threads:0}") int threads,
+            @Value("${app.security.password-hashing.queue-capacity:64}") int queueCapacity,
+            @Value("${app.security.password-hashing.retry-after:PT1S}") Duration retryAfter,
+            MeterRegistry meterRegistry) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.pool = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                Thread.ofPlatform().name("password-hashing-", 1).daemon().factory(),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.executor = ExecutorServiceMetrics.monitor(meterRegistry, pool, "password_hashing");
+        this.retryAfter = retryAfter;
+        this.rejections = Counter.builder("bank.auth.password.hashing.rejected")
+                .description("Logins and registrations turned away because the password hashing queue was full")
+                .register(meterRegistry);
+        log.info("Password hashing runs on {} threads with a queue of {}", poolSize, queueCapacity);
+    }
+
+    /**
+     * Queues {@code task} for the hashing pool.
+     *
+     * @throws PasswordHashingRejectedException if the queue is full
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> task) {
+        try {
+            return CompletableFuture.supplyAsync(task, executor);
+        } catch (RejectedExecutionException e) {
+            rejections.increment();
+            throw new PasswordHashingRejectedException(retryAfter);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        pool.shutdown();
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.bankcards.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.lang.NonNull;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Applies a {@link RateLimiter} per endpoint group to every {@code /api/} request, keyed by the authenticated user
+ * or, for anonymous requests such as logins, by the client address. Runs right after {@link JwtAuthenticationFilter}
+ * so the user is known, and answers over-limit requests with 429 and {@code Retry-After} before any controller,
+ * service or database work. Rejections are counted in {@code bank.rate.limit.rejected} by group.
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final byte[] REJECTED_BODY =
+            "{\"error\":\"Too many requests, please retry later.\"}".getBytes(StandardCharsets.UTF_8);
+
+    private final boolean enabled;
+    private final RateLimiter authLimiter;
+    private final RateLimiter transferLimiter;
+    private final RateLimiter apiLimiter;
+    private final Map<RateLimiter, Counter> rejections;
+
+    public RateLimitFilter(
+            @Value("${app.rate-limit.enabled:true}") boolean enabled,
+            @Value("${app.rate-limit.idle-timeout:PT10M}") Duration idleTimeout,
+            @Value("${app.rate-limit.max-keys:100000}") long maxKeys,
+            @Value("${app.rate-limit.auth.capacity:10}") long authCapacity,
+            @Value("${app.rate-limit.auth.refill-per-second:1}") double authRefillPerSecond,
+            @Value("${app.rate-limit.transfers.capacity:20}") long transferCapacity,
+            @Value("${app.rate-limit.transfers.refill-per-second:5}") double transferRefillPerSecond,
+            @Value("${app.rate-limit.api.capacity:100}") long apiCapacity,
+            @Value("${app.rate-limit.api.refill-per-second:50}") double apiRefillPerSecond,
+            MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.authLimiter = new RateLimiter("auth", authCapacity, authRefillPerSecond, idleTimeout, maxKeys);
+        this.transferLimiter = new RateLimiter("transfers", transferCapacity, transferRefillPerSecond, idleTimeout, maxKeys);
+        this.apiLimiter = new RateLimiter("api", apiCapacity, apiRefillPerSecond, idleTimeout, maxKeys);
+        this.rejections = Map.of(
+                authLimiter, rejectionCounter(meterRegistry, authLimiter),
+                transferLimiter, rejectionCounter(meterRegistry, transferLimiter),
+                apiLimiter, rejectionCounter(meterRegistry, apiLimiter));
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return !enabled || !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain
+    ) throws ServletException, IOException {
+        RateLimiter limiter = limiterFor(request.getRequestURI());
+        long waitNanos = limiter.tryAcquire(clientKey(request), System.nanoTime());
+        if (waitNanos == 0) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        rejections.get(limiter).increment();
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999))));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(REJECTED_BODY.length);
+        response.getOutputStream().write(REJECTED_BODY);
+    }
+
+    private RateLimiter limiterFor(String path) {
+        if (path.startsWith("/api/v1/auth/")) {
+            return authLimiter;
+        }
+        if (path.startsWith("/api/v1/transfers")) {
+            return transferLimiter;
+        }
+        return apiLimiter;
+    }
+
+    /**
+     * The user id for authenticated requests, otherwise the client address. Behind a proxy the address is only
+     * the client's when {@code server.forward-headers-strategy} is set.
+     */
+    private static Object clientKey(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof UserPrincipal principal) {
+            return principal.id();
+        }
+        return request.getRemoteAddr();
+    }
+
+    private static Counter rejectionCounter(MeterRegistry meterRegistry, RateLimiter limiter) {
+        return Counter.builder("bank.rate.limit.rejected")
+                .description("Requests answered 429 because the client exceeded its rate limit")
+                .tag("group", limiter.getName())
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.bankcards.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Token bucket per key, allowing bursts of {@code capacity} requests refilled at {@code refillPerSecond}.
+ * <p>
+ * Each bucket is kept as a single timestamp, the instant it will be full again (the generic cell rate algorithm),
+ * and updated with compare-and-set, so acquiring takes no lock and allocates nothing once the key is known.
+ * Buckets live in a bounded cache and are dropped after {@code idleTimeout} without requests, by which time
+ * they have refilled anyway, so eviction never grants a client more than a fresh bucket would.
+ */
+public class RateLimiter {
+
+    private static final Function<Object, AtomicLong> NEW_BUCKET = key -> new AtomicLong(Long.MIN_VALUE);
+
+    private final String name;
+    private final long nanosPerToken;
+    private final long burstNanos;
+    private final Cache<Object, AtomicLong> buckets;
+
+    public RateLimiter(String name, long capacity, double refillPerSecond, Duration idleTimeout, long maxKeys) {
+        if (capacity < 1 || refillPerSecond <= 0) {
+            throw new IllegalArgumentException("Rate limit " + name + " needs a capacity of at least 1 and a positive refill rate");
+        }
+        this.name = name;
+        this.nanosPerToken = (long) (Duration.ofSeconds(1).toNanos() / refillPerSecond);
+        this.burstNanos = capacity * nanosPerToken;
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterAccess(idleTimeout.compareTo(Duration.ofNanos(burstNanos)) > 0
+                        ? idleTimeout : Duration.ofNanos(burstNanos))
+                .build();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Takes a token from {@code key}'s bucket.
+     *
+     * @return 0 if the request may proceed, otherwise the nanoseconds until a token is available
+     */
+    public long tryAcquire(Object key, long nowNanos) {
+        AtomicLong fullAt = buckets.get(key, NEW_BUCKET);
+        while (true) {
+            long current = fullAt.get();
+            long next = Math.max(current, nowNanos) + nanosPerToken;
+            long wait = next - nowNanos - burstNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+}
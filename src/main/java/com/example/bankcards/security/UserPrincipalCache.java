@@ -0,0 +1,62 @@
+package com.example.bankcards.security;
+
+import com.example.bankcards.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Short-lived cache of {@link UserPrincipal}s keyed by user id, so authenticated requests
+ * do not query the users table each time. Entries must be evicted whenever role or lock status changes.
+ * <p>
+ * With virtual threads enabled, misses are loaded on Spring's {@code applicationTaskExecutor} rather than inside the
+ * cache's compute lock: that lock is a {@code synchronized} block, and a JDBC call made while holding it would pin a
+ * request's virtual thread to its carrier. Platform threads cannot be pinned, so otherwise misses load inline.
+ */
+@Component
+public class UserPrincipalCache {
+
+    private final LoadingCache<Long, Optional<UserPrincipal>> principals;
+
+    public UserPrincipalCache(
+            UserRepository userRepository,
+            @Value("${app.security.principal-cache.ttl:PT1M}") Duration ttl,
+            @Value("${app.security.principal-cache.max-size:10000}") long maxSize,
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads,
+            @Qualifier("applicationTaskExecutor") TaskExecutor taskExecutor) {
+        Caffeine<Object, Object> builder = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl);
+        this.principals = virtualThreads
+                ? builder.executor(taskExecutor).buildAsync(userRepository::findPrincipalById).synchronous()
+                : builder.build(userRepository::findPrincipalById);
+    }
+
+    public Optional<UserPrincipal> get(Long userId) {
+        return principals.get(userId);
+    }
+
+    /**
+     * Evicts the user right away and once more after the surrounding transaction commits,
+     * so a lookup racing with the update cannot leave the old state cached.
+     */
+    public void evict(Long userId) {
+        principals.invalidate(userId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    principals.invalidate(userId);
+                }
+            });
+        }
+    }
+}
@@ -2,31 +2,51 @@ package com.example.bankcards.service;
 
 import com.example.bankcards.dto.AdminCardCreateRequestDto;
 import com.example.bankcards.dto.CardDto;
+import com.example.bankcards.dto.CardSummary;
+import com.example.bankcards.dto.CursorPage;
 import com.example.bankcards.dto.UserDto;
 import com.example.bankcards.entity.Card;
 import com.example.bankcards.entity.User;
+import com.example.bankcards.entity.enums.AuditAction;
 import com.example.bankcards.entity.enums.CardStatus;
 import com.example.bankcards.entity.enums.Role;
 import com.example.bankcards.exception.CardOperationException;
+import com.example.bankcards.exception.PreconditionFailedException;
 import com.example.bankcards.repository.CardRepository;
 import com.example.bankcards.repository.UserRepository;
+import com.example.bankcards.security.UserPrincipalCache;
+import com.example.bankcards.util.CardMaskingUtil;
+import com.example.bankcards.util.CardNumberHasher;
+import com.example.bankcards.util.PageCursor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
 @Slf4j
 @RequiredArgsConstructor
 @PreAuthorize("hasRole('ADMIN')")
 @Service
 public class AdminService {
 
+    private static final int MAX_CURSOR_PAGE_SIZE = 500;
+
     private final CardRepository cardRepository;
     private final UserRepository userRepository;
     private final CardService cardService;
+    private final CardBalanceShardService cardBalanceShardService;
+    private final CardPageCache cardPageCache;
+    private final UserPrincipalCache userPrincipalCache;
+    private final CardNumberHasher cardNumberHasher;
+    private final AuditTrail auditTrail;
 
     @Transactional
     public CardDto createCard(AdminCardCreateRequestDto request) {
@@ -35,53 +55,133 @@ public class AdminService {
         User user = userRepository.findById(request.userId())
                 .orElseThrow(() -> new CardOperationException(String.format("User not found with id: %d", request.userId())));
 
+        String cardNumberHash = cardNumberHasher.hash(request.cardNumber());
+        if (cardRepository.existsByCardNumberHash(cardNumberHash)) {
+            log.warn("Admin attempted to create a duplicate card for user ID #{}", request.userId());
+            throw new CardOperationException("A card with this number already exists.");
+        }
+
         Card card = new Card();
         card.setUser(user);
         card.setCardNumber(request.cardNumber());
+        card.setCardNumberLast4(CardMaskingUtil.lastFourDigits(request.cardNumber()));
+        card.setCardNumberLength(request.cardNumber().length());
+        card.setCardNumberHash(cardNumberHash);
         card.setExpiryDate(request.expiryDate());
         card.setBalance(request.initialBalance());
         card.setStatus(CardStatus.ACTIVE);
 
         Card savedCard = cardRepository.save(card);
+        cardPageCache.invalidate(user.getId());
+        auditTrail.record(AuditAction.CARD_CREATED, savedCard.getId(),
+                String.format("Owner: user #%d, initial balance: %s", user.getId(), request.initialBalance()));
         log.info("Successfully created card ID #{} for user ID #{}", savedCard.getId(), user.getId());
 
         return cardService.mapToCardDto(savedCard);
     }
 
+    @Transactional(readOnly = true)
     public Page<CardDto> getAllCards(Pageable pageable) {
         log.info("Admin fetching all cards, page request: {}", pageable);
-        return cardRepository.findAll(pageable).map(cardService::mapToCardDto);
+        return cardRepository.findAllSummaries(pageable).map(cardService::mapToCardDto);
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPage<CardDto> getCardsAfter(String cursor, int limit, CardStatus status, Long userId) {
+        log.info("Admin fetching cards after cursor '{}', limit {}, status {}, user ID {}", cursor, limit, status, userId);
+        long afterId = PageCursor.decode(cursor);
+        Limit fetchLimit = cursorFetchLimit(limit);
+
+        List<CardSummary> cards;
+        if (userId != null && status != null) {
+            cards = cardRepository.findSummariesByUserIdAndStatusAfter(userId, status, afterId, fetchLimit);
+        } else if (userId != null) {
+            cards = cardRepository.findSummariesByUserIdAfter(userId, afterId, fetchLimit);
+        } else if (status != null) {
+            cards = cardRepository.findSummariesByStatusAfter(status, afterId, fetchLimit);
+        } else {
+            cards = cardRepository.findSummariesAfter(afterId, fetchLimit);
+        }
+        return toCursorPage(cards, limit, CardSummary::id, cardService::mapToCardDto);
     }
 
+    @Transactional(readOnly = true)
+    public CardDto getCardByNumber(String cardNumber) {
+        log.info("Admin looking up card by number");
+        return cardRepository.findSummaryByCardNumberHash(cardNumberHasher.hash(cardNumber))
+                .map(cardService::mapToCardDto)
+                .orElseThrow(() -> new CardOperationException("Card not found with the given number"));
+    }
+
+    /**
+     * Sets the card's status if it is still at {@code expectedVersion}, or unconditionally when that is {@code null}.
+     * A change committed between the check and the update is caught by the version check of the update itself.
+     */
     @Transactional
-    public CardDto updateCardStatus(Long cardId, CardStatus newStatus) {
+    public CardDto updateCardStatus(Long cardId, CardStatus newStatus, Long expectedVersion) {
         log.info("Admin updating status for card ID #{} to {}", cardId, newStatus);
 
-        Card card = cardRepository.findById(cardId)
+        Card card = cardRepository.findWithUserById(cardId)
                 .orElseThrow(() -> new CardOperationException(String.format("Card not found with id: %d", cardId)));
+        if (expectedVersion != null && !expectedVersion.equals(card.getVersion())) {
+            log.warn("Card ID #{} is at version {}, not the expected {}", cardId, card.getVersion(), expectedVersion);
+            throw new PreconditionFailedException("If-Match does not match the current version of the card.");
+        }
 
+        CardStatus oldStatus = card.getStatus();
         card.setStatus(newStatus);
-        Card updatedCard = cardRepository.save(card);
+        // flushed here so the returned card carries its new version
+        Card updatedCard = cardRepository.saveAndFlush(card);
+        cardPageCache.invalidate(card.getUser().getId());
+        auditTrail.record(AuditAction.CARD_STATUS_CHANGED, cardId, oldStatus + " -> " + newStatus);
         log.info("Successfully updated status for card ID #{}", updatedCard.getId());
 
-        return cardService.mapToCardDto(updatedCard);
+        // read back as a summary so the balance includes pending shard balances
+        return cardRepository.findSummaryById(cardId)
+                .map(cardService::mapToCardDto)
+                .orElseThrow(() -> new CardOperationException(String.format("Card not found with id: %d", cardId)));
+    }
+
+    @Transactional
+    public CardDto updateCardBalanceShards(Long cardId, int shards) {
+        log.info("Admin setting balance shards of card ID #{} to {}", cardId, shards);
+
+        Card card = cardRepository.findAllByIdForUpdate(List.of(cardId)).stream().findFirst()
+                .orElseThrow(() -> new CardOperationException(String.format("Card not found with id: %d", cardId)));
+
+        cardBalanceShardService.reshard(card, shards);
+        cardPageCache.invalidate(card.getUser().getId());
+        auditTrail.record(AuditAction.CARD_BALANCE_SHARDS_CHANGED, cardId, "Shards: " + shards);
+        log.info("Successfully set balance shards of card ID #{} to {}", cardId, shards);
+
+        return cardService.mapToCardDto(card);
     }
 
     @Transactional
     public void deleteCard(Long cardId) {
         log.info("Admin deleting card ID #{}", cardId);
-        if (!cardRepository.existsById(cardId)) {
-            throw new CardOperationException(String.format("Card not found with id: %d", cardId));
-        }
+        Long ownerId = cardRepository.findUserIdById(cardId)
+                .orElseThrow(() -> new CardOperationException(String.format("Card not found with id: %d", cardId)));
         cardRepository.deleteById(cardId);
+        cardPageCache.invalidate(ownerId);
+        auditTrail.record(AuditAction.CARD_DELETED, cardId, String.format("Owner: user #%d", ownerId));
         log.info("Successfully deleted card ID #{}", cardId);
     }
 
+    @Transactional(readOnly = true)
     public Page<UserDto> getAllUsers(Pageable pageable) {
         log.info("Admin fetching all users, page request: {}", pageable);
         return userRepository.findAll(pageable).map(this::mapToUserDto);
     }
 
+    @Transactional(readOnly = true)
+    public CursorPage<UserDto> getUsersAfter(String cursor, int limit) {
+        log.info("Admin fetching users after cursor '{}', limit {}", cursor, limit);
+        List<UserDto> users = userRepository.findUsersAfter(PageCursor.decode(cursor), cursorFetchLimit(limit));
+        return toCursorPage(users, limit, UserDto::id, Function.identity());
+    }
+
+    @Transactional(readOnly = true)
     public UserDto getUserById(Long userId) {
         log.info("Admin fetching user by ID #{}", userId);
         return userRepository.findById(userId)
@@ -95,8 +195,11 @@ public class AdminService {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new CardOperationException(String.format("User not found with id: %d", userId)));
 
+        Role oldRole = user.getRole();
         user.setRole(newRole);
         userRepository.save(user);
+        userPrincipalCache.evict(userId);
+        auditTrail.record(AuditAction.USER_ROLE_CHANGED, userId, oldRole + " -> " + newRole);
 
         log.info("Successfully updated role for user ID #{}", userId);
         return mapToUserDto(user);
@@ -111,11 +214,32 @@ public class AdminService {
 
         user.setLocked(locked);
         userRepository.save(user);
+        userPrincipalCache.evict(userId);
+        auditTrail.record(locked ? AuditAction.USER_LOCKED : AuditAction.USER_UNLOCKED, userId, null);
 
         log.info("Successfully updated lock status for user ID #{}", userId);
         return mapToUserDto(user);
     }
 
+    /**
+     * Fetches one row beyond the page so the presence of a next page is known without a count query.
+     */
+    private static Limit cursorFetchLimit(int limit) {
+        if (limit < 1 || limit > MAX_CURSOR_PAGE_SIZE) {
+            throw new CardOperationException(
+                    String.format("Limit must be between 1 and %d.", MAX_CURSOR_PAGE_SIZE));
+        }
+        return Limit.of(limit + 1);
+    }
+
+    private static <T, R> CursorPage<R> toCursorPage(
+            List<T> rows, int limit, ToLongFunction<T> idOf, Function<T, R> mapper) {
+        boolean hasNext = rows.size() > limit;
+        List<T> page = hasNext ? rows.subList(0, limit) : rows;
+        String nextCursor = hasNext ? PageCursor.encode(idOf.applyAsLong(page.get(limit - 1))) : null;
+        return new CursorPage<>(page.stream().map(mapper).toList(), nextCursor);
+    }
+
     private UserDto mapToUserDto(User user) {
         return new UserDto(
                 user.getId(),
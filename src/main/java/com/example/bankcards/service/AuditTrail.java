@@ -0,0 +1,240 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.entity.enums.AuditAction;
+import com.example.bankcards.repository.AuditEventRepository;
+import com.example.bankcards.repository.AuditEventRepository.AuditEvent;
+import com.example.bankcards.security.UserPrincipal;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.NonTransientDataAccessException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Persists audit events without adding a write to the transactions they describe.
+ * <p>
+ * {@link #record} collects events per transaction and hands them over only after it commits, so rolled-back
+ * work leaves no trace. They go into a bounded ring buffer that one background thread drains into
+ * {@code audit_events}, inserting everything that has queued up in one statement of at most
+ * {@code max-batch-size} rows. An insert that fails for a transient reason, such as the database being
+ * unreachable, is retried up to {@code max-attempts} times; one rejected for its data, such as a constraint
+ * violation, is split in halves until the offending events are isolated and skipped. Meanwhile new events wait in
+ * the buffer, and when it is full the committing thread waits up to {@code enqueue-timeout} for room before the
+ * event is dropped. Every event given up on is counted in {@code bank.audit.events.dropped}. On shutdown the writer
+ * drains the buffer before the connection pool closes.
+ * <p>
+ * {@code bank.audit.queue.size} and {@code bank.audit.lag} (age of the oldest event not yet written, in
+ * seconds) show how far the table trails the committed work.
+ */
+@Slf4j
+@Component
+public class AuditTrail implements DisposableBean {
+
+    // the width of audit_events.details; a longer value would fail its batch on every retry
+    private static final int MAX_DETAILS_LENGTH = 1000;
+
+    private final AuditEventRepository auditEventRepository;
+    private final BlockingQueue<AuditEvent> queue;
+    private final int maxBatchSize;
+    private final Duration enqueueTimeout;
+    private final Duration retryInterval;
+    private final int maxAttempts;
+    private final Duration shutdownTimeout;
+    private final Thread writer;
+    private final Timer flushTimer;
+    private final Counter writtenEvents;
+    private final Counter droppedEvents;
+
+    private volatile boolean running = true;
+    private volatile Instant oldestUnwritten;
+
+    public AuditTrail(
+            AuditEventRepository auditEventRepository,
+            MeterRegistry meterRegistry,
+            @Value("${app.audit.queue-capacity:10000}") int queueCapacity,
+            @Value("${app.audit.max-batch-size:500}") int maxBatchSize,
+            @Value("${app.audit.enqueue-timeout:PT0.1S}") Duration enqueueTimeout,
+            @Value("${app.audit.retry-interval:PT1S}") Duration retryInterval,
+            @Value("${app.audit.max-attempts:30}") int maxAttempts,
+            @Value("${app.audit.shutdown-timeout:PT10S}") Duration shutdownTimeout) {
+        this.auditEventRepository = auditEventRepository;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.maxBatchSize = maxBatchSize;
+        this.enqueueTimeout = enqueueTimeout;
+        this.retryInterval = retryInterval;
+        this.maxAttempts = maxAttempts;
+        this.shutdownTimeout = shutdownTimeout;
+        this.flushTimer = Timer.builder("bank.audit.flush")
+                .description("Batched inserts of audit events")
+                .register(meterRegistry);
+        this.writtenEvents = Counter.builder("bank.audit.events.written")
+                .description("Audit events stored")
+                .register(meterRegistry);
+        this.droppedEvents = Counter.builder("bank.audit.events.dropped")
+                .description("Audit events lost because the buffer stayed full or they could not be written")
+                .register(meterRegistry);
+        Gauge.builder("bank.audit.queue.size", queue, BlockingQueue::size)
+                .description("Committed audit events waiting to be written")
+                .register(meterRegistry);
+        Gauge.builder("bank.audit.lag", this, AuditTrail::lagSeconds)
+                .description("Age of the oldest audit event not yet written")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        this.writer = Thread.ofPlatform().name("audit-writer").daemon().start(this::writeLoop);
+    }
+
+    /**
+     * Records an action of the current user on {@code targetId}. Inside a transaction the event is only
+     * queued once it commits.
+     */
+    public void record(AuditAction action, Long targetId, String details) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        AuditEvent event = new AuditEvent(
+                Instant.now(),
+                authentication != null && authentication.getPrincipal() instanceof UserPrincipal user ? user.id() : null,
+                authentication == null ? null : authentication.getName(),
+                action,
+                targetId,
+                details == null || details.length() <= MAX_DETAILS_LENGTH ? details : details.substring(0, MAX_DETAILS_LENGTH));
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            enqueue(event);
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        List<AuditEvent> pending = (List<AuditEvent>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            List<AuditEvent> events = new ArrayList<>();
+            TransactionSynchronizationManager.bindResource(this, events);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(AuditTrail.this);
+                    if (status == STATUS_COMMITTED) {
+                        events.forEach(AuditTrail.this::enqueue);
+                    }
+                }
+            });
+            pending = events;
+        }
+        pending.add(event);
+    }
+
+    private void enqueue(AuditEvent event) {
+        boolean queued;
+        try {
+            queued = queue.offer(event, enqueueTimeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            queued = false;
+        }
+        if (!queued) {
+            droppedEvents.increment();
+            log.error("Audit buffer full, dropped event: {}", event);
+        }
+    }
+
+    private void writeLoop() {
+        List<AuditEvent> batch = new ArrayList<>(maxBatchSize);
+        while (running || !queue.isEmpty() || !batch.isEmpty()) {
+            try {
+                if (batch.isEmpty()) {
+                    AuditEvent first = queue.poll(100, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    batch.add(first);
+                    queue.drainTo(batch, maxBatchSize - 1);
+                    oldestUnwritten = first.occurredAt();
+                }
+                write(batch);
+                // only now is every event of the batch either stored or counted as dropped
+                batch.clear();
+                oldestUnwritten = null;
+            } catch (InterruptedException e) {
+                // nothing interrupts the writer on purpose; an unfinished batch is written again on the next pass
+            }
+        }
+    }
+
+    private void write(List<AuditEvent> batch) throws InterruptedException {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                flushTimer.record(() -> auditEventRepository.insertAll(batch));
+                writtenEvents.increment(batch.size());
+                return;
+            } catch (RuntimeException e) {
+                if (isRejectedForItsData(e)) {
+                    skipRejected(batch, e);
+                    return;
+                }
+                if (!running || attempt >= maxAttempts) {
+                    drop(batch, running ? "after " + attempt + " attempts" : "at shutdown", e);
+                    return;
+                }
+                log.error("Writing {} audit events failed, retrying in {}", batch.size(), retryInterval, e);
+                Thread.sleep(retryInterval.toMillis());
+            }
+        }
+    }
+
+    /**
+     * Writes the halves of a batch the database rejected separately, so only the events it rejects on their own
+     * are dropped.
+     */
+    private void skipRejected(List<AuditEvent> batch, RuntimeException e) throws InterruptedException {
+        if (batch.size() == 1) {
+            drop(batch, "as rejected by the database", e);
+            return;
+        }
+        int half = batch.size() / 2;
+        write(batch.subList(0, half));
+        write(batch.subList(half, batch.size()));
+    }
+
+    private void drop(List<AuditEvent> batch, String when, RuntimeException e) {
+        droppedEvents.increment(batch.size());
+        log.error("Dropped {} audit events {}: {}", batch.size(), when, batch, e);
+    }
+
+    // a resource failure, such as no connection, is worth retrying even though Spring classifies it as non-transient
+    private static boolean isRejectedForItsData(RuntimeException e) {
+        return e instanceof NonTransientDataAccessException && !(e instanceof DataAccessResourceFailureException);
+    }
+
+    private double lagSeconds() {
+        Instant oldest = oldestUnwritten;
+        if (oldest == null) {
+            AuditEvent next = queue.peek();
+            oldest = next == null ? null : next.occurredAt();
+        }
+        return oldest == null ? 0 : Duration.between(oldest, Instant.now()).toMillis() / 1000.0;
+    }
+
+    /**
+     * Stops the writer once the buffer is empty, waiting at most {@code shutdown-timeout}.
+     */
+    @Override
+    public void destroy() throws InterruptedException {
+        running = false;
+        if (!writer.join(shutdownTimeout)) {
+            log.error("Audit writer did not finish within {}; {} events were not written", shutdownTimeout, queue.size());
+        }
+    }
+}
@@ -7,6 +7,8 @@ import com.example.bankcards.entity.User;
 import com.example.bankcards.entity.enums.Role;
 import com.example.bankcards.repository.UserRepository;
 import com.example.bankcards.security.JwtService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -24,6 +26,7 @@ public class AuthService {
     private final PasswordEncoder passwordEncoder;
     private final JwtService jwtService;
     private final AuthenticationManager authenticationManager;
+    private final MeterRegistry meterRegistry;
 
     public AuthResponseDto register(RegisterRequestDto request) {
         log.info("Registering new user with username: {}", request.username());
@@ -39,8 +42,14 @@ public class AuthService {
         return new AuthResponseDto(jwtToken);
     }
 
+    /**
+     * Authenticates the user and issues a token. The whole call is recorded in {@code bank.auth.authentications}
+     * by outcome; the BCrypt share of it shows up separately in {@code bank.auth.password.hashing}.
+     */
     public AuthResponseDto authenticate(AuthRequestDto request) {
         log.info("Attempting to authenticate user: {}", request.username());
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "failure";
         try {
             authenticationManager.authenticate(
                     new UsernamePasswordAuthenticationToken(
@@ -51,10 +60,16 @@ public class AuthService {
             var user = userRepository.findByUsername(request.username()).orElseThrow();
             var jwtToken = jwtService.generateToken(user);
             log.info("User {} authenticated successfully", user.getUsername());
+            outcome = "success";
             return new AuthResponseDto(jwtToken);
         } catch (AuthenticationException e) {
             log.warn("Failed authentication attempt for user: {}", request.username());
             throw e;
+        } finally {
+            sample.stop(Timer.builder("bank.auth.authentications")
+                    .description("Login requests handled by AuthService")
+                    .tag("outcome", outcome)
+                    .register(meterRegistry));
         }
     }
 }
@@ -0,0 +1,114 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.repository.CardBalanceShardRepository;
+import com.example.bankcards.repository.CardRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Spreads credits to hot cards over several {@code card_balance_shards} rows, so concurrent transfers into the same
+ * card no longer queue on its {@code cards} row lock.
+ * <p>
+ * A sharded card's balance is {@code cards.balance} plus its shard balances. Shards only ever grow through
+ * credits; debits always lock the card row and fold the shards back when the card's own balance is short,
+ * so a funds check never counts money twice or misses a committed credit. {@link #compact()} periodically
+ * folds every card's shards back into its balance.
+ * <p>
+ * Which cards are sharded is cached per instance and refreshed every
+ * {@code app.transfers.balance-shards.refresh-interval}. A stale answer only costs contention, not correctness:
+ * a card treated as ordinary is credited under its row lock, and shards credited after a card stopped being
+ * sharded are still counted and later compacted.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CardBalanceShardService {
+
+    private final CardRepository cardRepository;
+    private final CardBalanceShardRepository shardRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+
+    private volatile Set<Long> shardedCardIds = Set.of();
+
+    public boolean isSharded(Long cardId) {
+        return shardedCardIds.contains(cardId);
+    }
+
+    /**
+     * Adds {@code amount} to a randomly chosen shard of {@code card}, locking only that shard row.
+     */
+    public void credit(Card card, BigDecimal amount) {
+        int shard = ThreadLocalRandom.current().nextInt(Math.max(card.getBalanceShards(), 1));
+        shardRepository.credit(card.getId(), shard, amount);
+    }
+
+    /**
+     * Moves the committed shard balances of a card locked by the current transaction into its balance.
+     */
+    public void foldInto(Card lockedCard) {
+        BigDecimal folded = shardRepository.fold(lockedCard.getId());
+        if (folded != null && folded.signum() != 0) {
+            lockedCard.setBalance(lockedCard.getBalance().add(folded));
+        }
+    }
+
+    /**
+     * Shards a card locked by the current transaction into {@code shards} rows, or turns sharding off with 0.
+     * Existing shard balances are folded into the card first, so its balance is complete either way.
+     * The cached set of sharded cards is refreshed once the transaction commits.
+     */
+    public void reshard(Card lockedCard, int shards) {
+        foldInto(lockedCard);
+        cardRepository.updateBalanceShards(lockedCard.getId(), shards);
+        shardRepository.deleteEmptyShards(lockedCard.getId());
+        if (shards > 0) {
+            shardRepository.createShards(lockedCard.getId(), shards);
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                refreshShardedCards();
+            }
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${app.transfers.balance-shards.refresh-interval:PT10S}")
+    public void refreshShardedCards() {
+        shardedCardIds = Set.copyOf(cardRepository.findShardedCardIds());
+    }
+
+    /**
+     * Folds the shards of every card holding a shard balance back into the card, one short transaction per card.
+     */
+    @Scheduled(fixedDelayString = "${app.transfers.balance-shards.compaction-interval:PT1M}")
+    public int compact() {
+        long startedAt = System.nanoTime();
+        List<Long> cardIds = shardRepository.findCardIdsWithShardBalance();
+        for (Long cardId : cardIds) {
+            transactionTemplate.executeWithoutResult(status ->
+                    cardRepository.findAllByIdForUpdate(List.of(cardId)).forEach(this::foldInto));
+        }
+
+        long elapsedNanos = System.nanoTime() - startedAt;
+        meterRegistry.timer("bank.cards.balance_shards.compactions").record(elapsedNanos, TimeUnit.NANOSECONDS);
+        if (!cardIds.isEmpty()) {
+            log.info("Compacted balance shards of {} cards in {} ms.",
+                    cardIds.size(), TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+        }
+        return cardIds.size();
+    }
+}
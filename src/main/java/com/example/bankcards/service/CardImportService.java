@@ -0,0 +1,249 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.dto.AdminCardCreateRequestDto;
+import com.example.bankcards.dto.CardImportResponseDto;
+import com.example.bankcards.dto.CardImportResponseDto.RowError;
+import com.example.bankcards.entity.enums.AuditAction;
+import com.example.bankcards.exception.CardOperationException;
+import com.example.bankcards.repository.CardBulkInsertRepository.NewCard;
+import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.repository.UserRepository;
+import com.example.bankcards.util.CardMaskingUtil;
+import com.example.bankcards.util.CardNumberConverter;
+import com.example.bankcards.util.CardNumberHasher;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Issues cards in bulk from a CSV stream with the columns {@code userId,cardNumber,expiryDate,initialBalance}.
+ * <p>
+ * The file is read one chunk of rows at a time. Each chunk is parsed, validated against the same rules as
+ * {@link AdminCardCreateRequestDto}, hashed and encrypted in parallel, then inserted in one statement and
+ * committed on its own, so memory use does not grow with the file and a bad row only rejects itself.
+ * Card numbers repeated within a chunk, already issued, or issued by an earlier chunk are reported per line.
+ */
+@Slf4j
+@PreAuthorize("hasRole('ADMIN')")
+@Service
+public class CardImportService {
+
+    static final String CSV_HEADER = "userId,cardNumber,expiryDate,initialBalance";
+    private static final int COLUMNS = 4;
+
+    private final CardRepository cardRepository;
+    private final UserRepository userRepository;
+    private final CardNumberConverter cardNumberConverter;
+    private final CardNumberHasher cardNumberHasher;
+    private final Validator validator;
+    private final TransactionTemplate transactionTemplate;
+    private final CardPageCache cardPageCache;
+    private final AuditTrail auditTrail;
+    private final int chunkSize;
+    private final int maxReportedErrors;
+
+    public CardImportService(
+            CardRepository cardRepository,
+            UserRepository userRepository,
+            CardNumberConverter cardNumberConverter,
+            CardNumberHasher cardNumberHasher,
+            Validator validator,
+            TransactionTemplate transactionTemplate,
+            CardPageCache cardPageCache,
+            AuditTrail auditTrail,
+            @Value("${app.cards.import.chunk-size:5000}") int chunkSize,
+            @Value("${app.cards.import.max-reported-errors:1000}") int maxReportedErrors) {
+        this.cardRepository = cardRepository;
+        this.userRepository = userRepository;
+        this.cardNumberConverter = cardNumberConverter;
+        this.cardNumberHasher = cardNumberHasher;
+        this.validator = validator;
+        this.transactionTemplate = transactionTemplate;
+        this.cardPageCache = cardPageCache;
+        this.auditTrail = auditTrail;
+        this.chunkSize = chunkSize;
+        this.maxReportedErrors = maxReportedErrors;
+    }
+
+    public CardImportResponseDto importCards(InputStream inputStream) throws IOException {
+        log.info("Admin importing cards from CSV");
+        long startedAt = System.nanoTime();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+
+        String header = reader.readLine();
+        if (header == null || !CSV_HEADER.equalsIgnoreCase(header.replace("\uFEFF", "").strip())) {
+            throw new CardOperationException("The first line must be the header: " + CSV_HEADER);
+        }
+
+        ImportReport report = new ImportReport(maxReportedErrors);
+        List<CsvLine> chunk = new ArrayList<>(chunkSize);
+        long lineNumber = 1;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            chunk.add(new CsvLine(lineNumber, line));
+            if (chunk.size() == chunkSize) {
+                importChunk(chunk, report);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            importChunk(chunk, report);
+        }
+
+        auditTrail.record(AuditAction.CARDS_IMPORTED, null,
+                String.format("Imported: %d, rejected: %d", report.imported, report.failed));
+        log.info("Imported {} cards, rejected {} rows in {} ms",
+                report.imported, report.failed, (System.nanoTime() - startedAt) / 1_000_000);
+        return new CardImportResponseDto(report.imported, report.failed, report.errors);
+    }
+
+    private void importChunk(List<CsvLine> chunk, ImportReport report) {
+        List<PreparedRow> rows = chunk.parallelStream().map(this::prepare).toList();
+
+        List<RowError> errors = new ArrayList<>();
+        Map<String, Long> lineByHash = new HashMap<>();
+        List<PreparedRow> candidates = new ArrayList<>(rows.size());
+        for (PreparedRow row : rows) {
+            if (row.error() != null) {
+                errors.add(new RowError(row.line(), row.error()));
+                continue;
+            }
+            Long firstLine = lineByHash.putIfAbsent(row.card().cardNumberHash(), row.line());
+            if (firstLine != null) {
+                errors.add(new RowError(row.line(),
+                        String.format("Duplicate of the card number on line %d.", firstLine)));
+            } else {
+                candidates.add(row);
+            }
+        }
+
+        List<PreparedRow> insertable = new ArrayList<>(candidates.size());
+        Set<String> inserted = candidates.isEmpty() ? Set.of() : transactionTemplate.execute(status -> {
+            Set<Long> userIds = candidates.stream().map(row -> row.card().userId()).collect(Collectors.toSet());
+            Set<Long> existingUserIds = new HashSet<>(userRepository.findExistingIds(userIds));
+            for (PreparedRow row : candidates) {
+                if (existingUserIds.contains(row.card().userId())) {
+                    insertable.add(row);
+                } else {
+                    errors.add(new RowError(row.line(),
+                            String.format("User not found with id: %d", row.card().userId())));
+                }
+            }
+            Set<String> insertedHashes =
+                    cardRepository.insertIgnoringDuplicates(insertable.stream().map(PreparedRow::card).toList());
+            insertable.stream()
+                    .filter(row -> insertedHashes.contains(row.card().cardNumberHash()))
+                    .map(row -> row.card().userId())
+                    .distinct()
+                    .forEach(cardPageCache::invalidate);
+            return insertedHashes;
+        });
+
+        for (PreparedRow row : insertable) {
+            if (inserted.contains(row.card().cardNumberHash())) {
+                report.imported++;
+            } else {
+                errors.add(new RowError(row.line(), "A card with this number already exists."));
+            }
+        }
+        errors.sort(Comparator.comparingLong(RowError::line));
+        errors.forEach(report::reject);
+    }
+
+    /**
+     * Parses and validates one line and, if it is valid, derives every stored column of the card.
+     * Runs on the common fork-join pool.
+     */
+    private PreparedRow prepare(CsvLine csvLine) {
+        String[] fields = csvLine.text().split(",", -1);
+        if (fields.length != COLUMNS) {
+            return PreparedRow.rejected(csvLine.number(),
+                    String.format("Expected %d columns but found %d.", COLUMNS, fields.length));
+        }
+
+        AdminCardCreateRequestDto request;
+        try {
+            request = new AdminCardCreateRequestDto(
+                    fields[0].isBlank() ? null : Long.valueOf(fields[0].strip()),
+                    fields[1].strip(),
+                    fields[2].isBlank() ? null : LocalDate.parse(fields[2].strip()),
+                    fields[3].isBlank() ? null : new BigDecimal(fields[3].strip()));
+        } catch (NumberFormatException e) {
+            return PreparedRow.rejected(csvLine.number(), "userId and initialBalance must be numbers.");
+        } catch (DateTimeParseException e) {
+            return PreparedRow.rejected(csvLine.number(), "expiryDate must be a date in the format yyyy-MM-dd.");
+        }
+
+        Set<ConstraintViolation<AdminCardCreateRequestDto>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            return PreparedRow.rejected(csvLine.number(), violations.stream()
+                    .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining("; ")));
+        }
+
+        String cardNumber = request.cardNumber();
+        return new PreparedRow(csvLine.number(), new NewCard(
+                request.userId(),
+                cardNumberConverter.convertToDatabaseColumn(cardNumber),
+                CardMaskingUtil.lastFourDigits(cardNumber),
+                cardNumber.length(),
+                cardNumberHasher.hash(cardNumber),
+                request.expiryDate(),
+                request.initialBalance()), null);
+    }
+
+    private record CsvLine(long number, String text) {
+    }
+
+    private record PreparedRow(long line, NewCard card, String error) {
+
+        static PreparedRow rejected(long line, String error) {
+            return new PreparedRow(line, null, error);
+        }
+    }
+
+    private static final class ImportReport {
+
+        private final int maxReportedErrors;
+        private final List<RowError> errors = new ArrayList<>();
+        private long imported;
+        private long failed;
+
+        private ImportReport(int maxReportedErrors) {
+            this.maxReportedErrors = maxReportedErrors;
+        }
+
+        private void reject(RowError error) {
+            failed++;
+            if (errors.size() < maxReportedErrors) {
+                errors.add(error);
+            }
+        }
+    }
+}
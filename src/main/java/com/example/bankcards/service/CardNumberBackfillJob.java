@@ -0,0 +1,97 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.util.CardMaskingUtil;
+import com.example.bankcards.util.CardNumberHasher;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Fills the plaintext columns derived from the encrypted card number for rows created
+ * before those columns existed. Runs once in the background after startup, one committed chunk at a time,
+ * while transfers are already served: each card gets a targeted update of the derived columns only, so it never
+ * writes back a balance or status read before a concurrent change. The update changes the masked number and the
+ * version of each card, so every committed chunk invalidates the cached card pages. A failed chunk stops the run;
+ * the remaining cards still lack the columns and are picked up on the next start.
+ */
+@Slf4j
+@Service
+public class CardNumberBackfillJob {
+
+    private final CardRepository cardRepository;
+    private final CardNumberHasher cardNumberHasher;
+    private final CardPageCache cardPageCache;
+    private final TransactionTemplate transactionTemplate;
+    private final TaskExecutor taskExecutor;
+    private final int chunkSize;
+
+    public CardNumberBackfillJob(
+            CardRepository cardRepository,
+            CardNumberHasher cardNumberHasher,
+            CardPageCache cardPageCache,
+            TransactionTemplate transactionTemplate,
+            @Qualifier("applicationTaskExecutor") TaskExecutor taskExecutor,
+            @Value("${app.cards.backfill.chunk-size:500}") int chunkSize) {
+        this.cardRepository = cardRepository;
+        this.cardNumberHasher = cardNumberHasher;
+        this.cardPageCache = cardPageCache;
+        this.transactionTemplate = transactionTemplate;
+        this.taskExecutor = taskExecutor;
+        this.chunkSize = chunkSize;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void scheduleBackfill() {
+        taskExecutor.execute(this::backfill);
+    }
+
+    public int backfill() {
+        long lastId = 0;
+        int updated = 0;
+        while (true) {
+            long afterId = lastId;
+            List<Card> chunk;
+            try {
+                chunk = transactionTemplate.execute(status -> {
+                    List<Card> cards = cardRepository.findWithMissingDerivedColumns(afterId, Limit.of(chunkSize));
+                    cards.forEach(this::fillDerivedColumns);
+                    if (!cards.isEmpty()) {
+                        cardPageCache.invalidateAll();
+                    }
+                    return cards;
+                });
+            } catch (RuntimeException e) {
+                log.error("Backfilling card numbers after card ID #{} failed; {} cards were backfilled, "
+                        + "the rest will be on the next start.", afterId, updated, e);
+                break;
+            }
+
+            if (chunk == null || chunk.isEmpty()) {
+                break;
+            }
+            updated += chunk.size();
+            lastId = chunk.get(chunk.size() - 1).getId();
+        }
+
+        if (updated > 0) {
+            log.info("Backfilled card number suffix and blind index for {} cards.", updated);
+        }
+        return updated;
+    }
+
+    private void fillDerivedColumns(Card card) {
+        String cardNumber = card.getCardNumber();
+        cardRepository.updateDerivedColumns(card.getId(), CardMaskingUtil.lastFourDigits(cardNumber),
+                cardNumber.length(), cardNumberHasher.hash(cardNumber));
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.config.ReplicaRoutingDataSource;
+import com.example.bankcards.dto.CardDto;
+import com.example.bankcards.dto.VersionedPage;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Bounded cache of the card pages a user lists, keyed by user id, the user's current generation and the page request.
+ * Each page is stored with its entity tag, so conditional requests for a cached page are answered without a query.
+ * <p>
+ * Every committed change to a user's cards moves the user to a new generation instead of evicting entries, so a page
+ * loaded by a request that raced with the change is stored under a generation nobody reads any more: once the
+ * change has committed and {@link #invalidate} has run, no request on this instance can get the old page.
+ * Generations are drawn from one counter and never reused, which keeps that true when a user's generation
+ * itself is evicted. Invalidation also keeps the affected reads on the primary for the read-your-writes window,
+ * so the next page is not reloaded from a replica that has not replayed the change yet.
+ * <p>
+ * Hit and miss counts are published as the {@code cache.gets} meter tagged {@code cache=card_pages}.
+ */
+@Component
+public class CardPageCache {
+
+    private final Cache<PageKey, VersionedPage<CardDto>> pages;
+    private final Cache<Long, Long> generations;
+    private final AtomicLong nextGeneration = new AtomicLong();
+    private final ReplicaRoutingDataSource replicaRoutingDataSource;
+
+    public CardPageCache(
+            ReplicaRoutingDataSource replicaRoutingDataSource,
+            MeterRegistry meterRegistry,
+            @Value("${app.cards.page-cache.ttl:PT5M}") Duration ttl,
+            @Value("${app.cards.page-cache.max-size:10000}") long maxSize) {
+        this.replicaRoutingDataSource = replicaRoutingDataSource;
+        this.pages = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.generations = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, pages, "card_pages");
+    }
+
+    /**
+     * Returns the cached page or loads it with {@code loader}. The loader runs outside the cache's lock,
+     * so concurrent misses for the same page may both load it.
+     */
+    public VersionedPage<CardDto> get(Long userId, Pageable pageable, Supplier<VersionedPage<CardDto>> loader) {
+        PageKey key = key(userId, pageable);
+        VersionedPage<CardDto> page = pages.getIfPresent(key);
+        if (page == null) {
+            page = loader.get();
+            pages.put(key, page);
+        }
+        return page;
+    }
+
+    /**
+     * Returns the entity tag of the cached page, or computes it with {@code loader} without loading the page.
+     */
+    public String getETag(Long userId, Pageable pageable, Supplier<String> loader) {
+        VersionedPage<CardDto> page = pages.getIfPresent(key(userId, pageable));
+        return page != null ? page.eTag() : loader.get();
+    }
+
+    /**
+     * Moves the user to a new generation once the surrounding transaction commits, or right away outside one.
+     */
+    public void invalidate(Long userId) {
+        afterCommit(() -> {
+            replicaRoutingDataSource.pinToPrimary(userId);
+            generations.put(userId, nextGeneration.incrementAndGet());
+        });
+    }
+
+    /**
+     * Moves every user to a new generation, for changes that touch cards of many users at once.
+     */
+    public void invalidateAll() {
+        afterCommit(() -> {
+            replicaRoutingDataSource.pinAllToPrimary();
+            generations.invalidateAll();
+            pages.invalidateAll();
+        });
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private PageKey key(Long userId, Pageable pageable) {
+        return new PageKey(userId, generations.get(userId, id -> nextGeneration.incrementAndGet()), pageable);
+    }
+
+    private record PageKey(Long userId, long generation, Pageable pageable) {
+    }
+}
@@ -1,14 +1,19 @@
 package com.example.bankcards.service;
 
 import com.example.bankcards.dto.CardDto;
+import com.example.bankcards.dto.CardSummary;
+import com.example.bankcards.dto.VersionedPage;
 import com.example.bankcards.entity.Card;
-import com.example.bankcards.entity.User;
 import com.example.bankcards.entity.enums.CardStatus;
 import com.example.bankcards.exception.CardOperationException;
 import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.security.UserPrincipal;
 import com.example.bankcards.util.CardMaskingUtil;
+import com.example.bankcards.util.EntityTags;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.scheduling.annotation.Scheduled;
@@ -16,7 +21,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
-import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 @Slf4j
 @Service
@@ -25,20 +30,46 @@ public class CardService {
 
     private final CardRepository cardRepository;
     private final CardMaskingUtil cardMaskingUtil;
+    private final CardPageCache cardPageCache;
+    private final MeterRegistry meterRegistry;
 
-    public Page<CardDto> getUserCards(User user, Pageable pageable) {
+    @Value("${app.cards.expiry.chunk-size:1000}")
+    private int expiryChunkSize = 1000;
+
+    /**
+     * Served from {@link CardPageCache}; the transaction only takes a connection on a cache miss.
+     */
+    @Transactional(readOnly = true)
+    public VersionedPage<CardDto> getUserCards(UserPrincipal user, Pageable pageable) {
         log.info("Fetching cards for user '{}' with page request: {}", user.getUsername(), pageable);
-        Page<Card> cards = cardRepository.findByUser(user, pageable);
-        return cards.map(this::mapToCardDto);
+        return cardPageCache.get(user.id(), pageable, () -> {
+            // read before the page, so the tag may be older than the page but never newer
+            String eTag = userCardsETag(user.id(), pageable);
+            Page<CardSummary> cards = cardRepository.findSummariesByUserId(user.id(), pageable);
+            return new VersionedPage<>(eTag, cards.map(this::mapToCardDto));
+        });
+    }
+
+    /**
+     * The entity tag {@link #getUserCards} would return, from the cache or one aggregate query, without loading
+     * or mapping any card, so an unchanged page can be answered with 304.
+     */
+    @Transactional(readOnly = true)
+    public String getUserCardsETag(UserPrincipal user, Pageable pageable) {
+        return cardPageCache.getETag(user.id(), pageable, () -> userCardsETag(user.id(), pageable));
+    }
+
+    private String userCardsETag(Long userId, Pageable pageable) {
+        return EntityTags.weak(userId, cardRepository.findCardsVersionByUserId(userId), pageable);
     }
 
     @Transactional
-    public void requestCardBlock(Long cardId, User user) {
+    public void requestCardBlock(Long cardId, UserPrincipal user) {
         log.info("User '{}' requesting to block card ID #{}", user.getUsername(), cardId);
         Card card = cardRepository.findById(cardId)
                 .orElseThrow(() -> new CardOperationException(String.format("Card with ID %d not found", cardId)));
 
-        if (!card.getUser().getId().equals(user.getId())) {
+        if (!card.getUser().getId().equals(user.id())) {
             log.warn("Access denied for user '{}' to card ID #{}", user.getUsername(), cardId);
             throw new CardOperationException("Access denied. You are not the owner of this card.");
         }
@@ -50,28 +81,43 @@ public class CardService {
 
         card.setStatus(CardStatus.BLOCKED);
         cardRepository.save(card);
+        cardPageCache.invalidate(user.id());
         log.info("Card ID #{} was successfully blocked by user '{}'", cardId, user.getUsername());
     }
 
-    @Transactional
+    /**
+     * Expires overdue active cards with chunked bulk updates, one commit per chunk, so the job neither loads
+     * cards into memory nor holds row locks for longer than a single chunk.
+     */
     @Scheduled(cron = "0 0 1 * * *")
-    public void updateExpiredCardStatuses() {
+    public int updateExpiredCardStatuses() {
         log.info("Running scheduled job to update expired card statuses...");
+        long startedAt = System.nanoTime();
         LocalDate today = LocalDate.now();
-        List<Card> expiredCards = cardRepository.findAllByStatusAndExpiryDateBefore(CardStatus.ACTIVE, today);
 
-        if (expiredCards.isEmpty()) {
-            log.info("No expired cards found.");
-            return;
-        }
+        int expired = 0;
+        int updated;
+        do {
+            updated = cardRepository.expireActiveCardsBefore(today, expiryChunkSize);
+            if (updated > 0) {
+                cardPageCache.invalidateAll();
+            }
+            expired += updated;
+        } while (updated == expiryChunkSize);
 
-        expiredCards.forEach(card -> card.setStatus(CardStatus.EXPIRED));
+        long elapsedNanos = System.nanoTime() - startedAt;
+        meterRegistry.timer("bank.cards.expiry.runs").record(elapsedNanos, TimeUnit.NANOSECONDS);
+        meterRegistry.counter("bank.cards.expired").increment(expired);
 
-        cardRepository.saveAll(expiredCards);
-        log.info("Successfully updated status for {} expired cards.", expiredCards.size());
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+        if (expired == 0) {
+            log.info("No expired cards found ({} ms).", elapsedMillis);
+        } else {
+            log.info("Successfully updated status for {} expired cards in {} ms.", expired, elapsedMillis);
+        }
+        return expired;
     }
 
-
     public CardDto mapToCardDto(Card card) {
         return new CardDto(
                 card.getId(),
@@ -79,7 +125,20 @@ public class CardService {
                 card.getUser().getOwnerName(),
                 card.getExpiryDate(),
                 card.getStatus(),
-                card.getBalance()
+                card.getBalance(),
+                card.getVersion()
+        );
+    }
+
+    public CardDto mapToCardDto(CardSummary card) {
+        return new CardDto(
+                card.id(),
+                cardMaskingUtil.maskCardNumber(card.cardNumberLast4(), card.cardNumberLength()),
+                card.ownerName(),
+                card.expiryDate(),
+                card.status(),
+                card.balance(),
+                card.version()
         );
     }
 }
@@ -0,0 +1,160 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.dto.IdempotencyKeySummary;
+import com.example.bankcards.dto.TransferRequestDto;
+import com.example.bankcards.exception.CardOperationException;
+import com.example.bankcards.repository.TransferIdempotencyKeyRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+
+/**
+ * Deduplicates transfers by client-supplied {@code Idempotency-Key}.
+ * <p>
+ * Keys are claimed with an insert into {@code transfer_idempotency_keys} inside the transfer's own transaction,
+ * so a key only survives if the transfer committed and only successful outcomes are ever replayed. Committed keys
+ * are also kept in a bounded in-memory cache, which answers most retries without touching the database. Each cache
+ * entry expires together with its row, so a key read back from the database is not kept alive past its own TTL.
+ */
+@Slf4j
+@Service
+public class TransferIdempotencyService {
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final TransferIdempotencyKeyRepository idempotencyKeyRepository;
+    private final Duration ttl;
+    private final int purgeBatchSize;
+    private final Cache<UserKey, CommittedKey> committedKeys;
+
+    public TransferIdempotencyService(
+            TransferIdempotencyKeyRepository idempotencyKeyRepository,
+            @Value("${app.transfers.idempotency.ttl:PT24H}") Duration ttl,
+            @Value("${app.transfers.idempotency.cache-size:100000}") long cacheSize,
+            @Value("${app.transfers.idempotency.purge-batch-size:1000}") int purgeBatchSize) {
+        this.idempotencyKeyRepository = idempotencyKeyRepository;
+        this.ttl = ttl;
+        this.purgeBatchSize = purgeBatchSize;
+        this.committedKeys = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfter(new ExpireWithRow())
+                .build();
+    }
+
+    /**
+     * Claims {@code key} for the current transaction, or reports that it belongs to an already committed transfer.
+     *
+     * @return {@code true} if the same request was already completed under this key and must not run again
+     * @throws CardOperationException if the key is malformed or was used for a different request
+     */
+    public boolean claimOrReplay(Long userId, String key, TransferRequestDto request) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new CardOperationException(
+                    String.format("Idempotency-Key must be between 1 and %d characters.", MAX_KEY_LENGTH));
+        }
+        UserKey userKey = new UserKey(userId, key);
+        String requestHash = fingerprint(request);
+
+        CommittedKey cached = committedKeys.getIfPresent(userKey);
+        if (cached != null) {
+            return verifySameRequest(cached.requestHash(), requestHash, key);
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        if (idempotencyKeyRepository.claim(userId, key, requestHash, now, now.minus(ttl)) == 0) {
+            IdempotencyKeySummary stored = idempotencyKeyRepository.findRequestHash(userId, key)
+                    .orElseThrow(() -> new IllegalStateException("Idempotency key vanished while being claimed"));
+            committedKeys.put(userKey, new CommittedKey(stored.requestHash(), stored.createdAt().plus(ttl)));
+            return verifySameRequest(stored.requestHash(), requestHash, key);
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    committedKeys.put(userKey, new CommittedKey(requestHash, now.plus(ttl)));
+                }
+            });
+        }
+        return false;
+    }
+
+    @Scheduled(fixedDelayString = "${app.transfers.idempotency.purge-interval:PT10M}")
+    public int purgeExpiredKeys() {
+        LocalDateTime expiredBefore = LocalDateTime.now().minus(ttl);
+        int purged = 0;
+        int deleted;
+        do {
+            deleted = idempotencyKeyRepository.deleteExpiredBatch(expiredBefore, purgeBatchSize);
+            purged += deleted;
+        } while (deleted == purgeBatchSize);
+
+        if (purged > 0) {
+            log.info("Purged {} expired transfer idempotency keys.", purged);
+        }
+        return purged;
+    }
+
+    private static boolean verifySameRequest(String storedHash, String requestHash, String key) {
+        if (!storedHash.equals(requestHash)) {
+            log.warn("Idempotency key '{}' was reused for a different transfer request", key);
+            throw new CardOperationException("Idempotency-Key was already used for a different transfer request.");
+        }
+        return true;
+    }
+
+    private static String fingerprint(TransferRequestDto request) {
+        String canonical = request.fromCardId() + ":" + request.toCardId() + ":"
+                + (request.amount() == null ? "" : request.amount().stripTrailingZeros().toPlainString());
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(canonical.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private record UserKey(Long userId, String key) {
+    }
+
+    private record CommittedKey(String requestHash, LocalDateTime expiresAt) {
+
+        long remainingNanos() {
+            return Math.max(0, Duration.between(LocalDateTime.now(), expiresAt).toNanos());
+        }
+    }
+
+    /**
+     * Expires each entry when its database row does, no matter when it was loaded; reads do not extend it.
+     */
+    private static final class ExpireWithRow implements Expiry<UserKey, CommittedKey> {
+
+        @Override
+        public long expireAfterCreate(UserKey key, CommittedKey value, long currentTime) {
+            return value.remainingNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(UserKey key, CommittedKey value, long currentTime, long currentDuration) {
+            return value.remainingNanos();
+        }
+
+        @Override
+        public long expireAfterRead(UserKey key, CommittedKey value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -1,18 +1,39 @@
 package com.example.bankcards.service;
 
+import com.example.bankcards.dto.BatchTransferMode;
+import com.example.bankcards.dto.BatchTransferRequestDto;
+import com.example.bankcards.dto.BatchTransferResponseDto;
 import com.example.bankcards.dto.TransferRequestDto;
+import com.example.bankcards.dto.TransferResultDto;
 import com.example.bankcards.entity.Card;
-import com.example.bankcards.entity.User;
+import com.example.bankcards.entity.enums.AuditAction;
 import com.example.bankcards.entity.enums.CardStatus;
+import com.example.bankcards.exception.BatchTransferException;
 import com.example.bankcards.exception.CardOperationException;
+import com.example.bankcards.exception.TransferFailedException;
+import com.example.bankcards.exception.TransferFailedException.Reason;
 import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.security.UserPrincipal;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Slf4j
 @RequiredArgsConstructor
@@ -20,9 +41,69 @@ import java.time.LocalDate;
 public class TransferService {
 
     private final CardRepository cardRepository;
+    private final TransferIdempotencyService transferIdempotencyService;
+    private final CardBalanceShardService cardBalanceShardService;
+    private final CardPageCache cardPageCache;
+    private final AuditTrail auditTrail;
+    private final MeterRegistry meterRegistry;
 
+    /**
+     * Which engine executes transfers: {@code jpa} validates and updates the cards through Hibernate,
+     * {@code database} delegates the whole transfer to the {@code transfer_between_cards} function.
+     */
+    @Value("${app.transfers.engine:jpa}")
+    private Engine engine = Engine.JPA;
+
+    @Value("${app.transfers.batch.max-size:1000}")
+    private int maxBatchSize = 1000;
+
+    @Transactional
+    public void performTransfer(TransferRequestDto request, UserPrincipal user) {
+        performTransfer(request, user, null);
+    }
+
+    /**
+     * Performs the transfer at most once per {@code idempotencyKey}. A key that already belongs to a committed
+     * transfer with the same parameters is answered without locking cards or validating again.
+     * The time spent, excluding the commit, is recorded in the {@code bank.transfers} timer,
+     * tagged by engine, outcome and failure reason.
+     *
+     * @return {@code true} if the transfer was a replay of an earlier one and nothing was changed
+     */
     @Transactional
-    public void performTransfer(TransferRequestDto request, User user) {
+    public boolean performTransfer(TransferRequestDto request, UserPrincipal user, String idempotencyKey) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
+        String reason = "none";
+        try {
+            boolean replayed = doPerformTransfer(request, user, idempotencyKey);
+            outcome = replayed ? "replayed" : "completed";
+            return replayed;
+        } catch (TransferFailedException e) {
+            outcome = "failed";
+            reason = e.getReason().name().toLowerCase(Locale.ROOT);
+            throw e;
+        } catch (CardOperationException e) {
+            outcome = "failed";
+            reason = Reason.INVALID_REQUEST.name().toLowerCase(Locale.ROOT);
+            throw e;
+        } finally {
+            sample.stop(Timer.builder("bank.transfers")
+                    .description("Single transfers handled by TransferService")
+                    .tag("engine", engine.name().toLowerCase(Locale.ROOT))
+                    .tag("outcome", outcome)
+                    .tag("reason", reason)
+                    .register(meterRegistry));
+        }
+    }
+
+    private boolean doPerformTransfer(TransferRequestDto request, UserPrincipal user, String idempotencyKey) {
+        if (idempotencyKey != null && transferIdempotencyService.claimOrReplay(user.id(), idempotencyKey, request)) {
+            log.info("Transfer with idempotency key '{}' for user '{}' was already completed; replaying the outcome",
+                    idempotencyKey, user.getUsername());
+            return true;
+        }
+
         log.info(
                 "Attempting to transfer {} from card #{} to card #{} for user '{}'",
                 request.amount(),
@@ -31,48 +112,242 @@ public class TransferService {
                 user.getUsername()
         );
 
-        Card fromCard = findAndValidateCard(request.fromCardId(), user);
-        Card toCard = findAndValidateCard(request.toCardId(), user);
+        validateRequest(request);
+
+        if (engine == Engine.DATABASE) {
+            transferInDatabase(request, user);
+        } else {
+            transferWithJpa(request, user);
+        }
+        // both cards belong to the user, so only the user's cached card pages change
+        cardPageCache.invalidate(user.id());
+        recordTransfer(request);
+
+        log.info("Transfer from card #{} to #{} for amount {} completed successfully for user '{}'",
+                request.fromCardId(), request.toCardId(), request.amount(), user.getUsername());
+        return false;
+    }
+
+    private void transferWithJpa(TransferRequestDto request, UserPrincipal user) {
+        if (cardBalanceShardService.isSharded(request.toCardId())) {
+            transferToShardedCard(request, user);
+            return;
+        }
+        Map<Long, Card> lockedCards = lockOwnCards(List.of(request.fromCardId(), request.toCardId()), user);
+        applyTransfer(request, lockedCards, user);
+
+        cardRepository.save(lockedCards.get(request.fromCardId()));
+        cardRepository.save(lockedCards.get(request.toCardId()));
+    }
+
+    /**
+     * Locks only the source card and credits one of the destination's balance shards, so concurrent transfers
+     * into a hot card contend on N shard rows instead of its single card row.
+     */
+    private void transferToShardedCard(TransferRequestDto request, UserPrincipal user) {
+        Map<Long, Card> cards = new HashMap<>(lockOwnCards(List.of(request.fromCardId()), user));
+        cardRepository.findById(request.toCardId()).ifPresent(toCard -> cards.put(toCard.getId(), toCard));
+
+        Card toCard = withdraw(request, cards, user);
+        cardBalanceShardService.credit(toCard, request.amount());
+        cardRepository.save(cards.get(request.fromCardId()));
+    }
+
+    /**
+     * Executes up to {@code app.transfers.batch.max-size} transfers in one transaction. All of the user's cards in
+     * the batch are locked with a single {@code IN} query, which leaves other users' cards unlocked, and the balance
+     * changes are applied in memory, so Hibernate flushes one batched {@code UPDATE} per touched card at commit
+     * regardless of how many transfers hit it.
+     */
+    @Transactional
+    public BatchTransferResponseDto performBatchTransfer(BatchTransferRequestDto request, UserPrincipal user) {
+        List<TransferRequestDto> transfers = request.transfers();
+        BatchTransferMode mode = request.modeOrDefault();
+        if (transfers == null || transfers.isEmpty()) {
+            throw new CardOperationException("Batch must contain at least one transfer.");
+        }
+        if (transfers.size() > maxBatchSize) {
+            throw new CardOperationException(
+                    String.format("Batch must not contain more than %d transfers.", maxBatchSize));
+        }
+        log.info("Attempting batch of {} transfers in {} mode for user '{}'", transfers.size(), mode, user.getUsername());
+
+        Set<Long> cardIds = new TreeSet<>();
+        for (TransferRequestDto transfer : transfers) {
+            if (transfer != null) {
+                addIfPresent(cardIds, transfer.fromCardId());
+                addIfPresent(cardIds, transfer.toCardId());
+            }
+        }
+        Map<Long, Card> lockedCards = lockOwnCards(cardIds, user);
+
+        List<TransferResultDto> results = new ArrayList<>(transfers.size());
+        int completed = 0;
+        for (int i = 0; i < transfers.size(); i++) {
+            try {
+                TransferRequestDto transfer = transfers.get(i);
+                validateRequest(transfer);
+                applyTransfer(transfer, lockedCards, user);
+                recordTransfer(transfer);
+                results.add(new TransferResultDto(i, TransferResultDto.Status.COMPLETED, null));
+                completed++;
+            } catch (CardOperationException e) {
+                results.add(new TransferResultDto(i, TransferResultDto.Status.FAILED, e.getMessage()));
+                if (mode == BatchTransferMode.ALL_OR_NOTHING) {
+                    throw rollBackBatch(i, e, results, transfers.size());
+                }
+            }
+        }
+
+        if (completed > 0) {
+            cardPageCache.invalidate(user.id());
+        }
+        log.info("Batch of {} transfers for user '{}' finished: {} completed, {} failed",
+                transfers.size(), user.getUsername(), completed, transfers.size() - completed);
+        return new BatchTransferResponseDto(mode, true, completed, transfers.size() - completed, results);
+    }
+
+    private void recordTransfer(TransferRequestDto transfer) {
+        auditTrail.record(AuditAction.TRANSFER, transfer.fromCardId(),
+                String.format("Amount: %s, to card #%d", transfer.amount(), transfer.toCardId()));
+    }
+
+    private static BatchTransferException rollBackBatch(
+            int failedIndex, CardOperationException cause, List<TransferResultDto> results, int batchSize) {
+        List<TransferResultDto> rolledBack = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            rolledBack.add(i == failedIndex
+                    ? results.get(i)
+                    : new TransferResultDto(i, TransferResultDto.Status.NOT_APPLIED, null));
+        }
+        var response = new BatchTransferResponseDto(BatchTransferMode.ALL_OR_NOTHING, false, 0, 1, rolledBack);
+        return new BatchTransferException(
+                String.format("Transfer #%d failed: %s", failedIndex, cause.getMessage()), response);
+    }
+
+    private static void addIfPresent(Set<Long> cardIds, Long cardId) {
+        if (cardId != null) {
+            cardIds.add(cardId);
+        }
+    }
+
+    private void validateRequest(TransferRequestDto request) {
+        if (request == null || request.fromCardId() == null || request.toCardId() == null || request.amount() == null) {
+            throw new TransferFailedException(Reason.INVALID_REQUEST,
+                    "Transfer must specify the source card, destination card and amount.");
+        }
+        if (request.fromCardId().equals(request.toCardId())) {
+            log.warn("Transfer failed: Source and destination card #{} are the same", request.fromCardId());
+            throw new TransferFailedException(Reason.SAME_CARD, "Source and destination cards must be different.");
+        }
+    }
+
+    /**
+     * Validates a transfer against already locked cards and moves the amount between them in memory.
+     */
+    private void applyTransfer(TransferRequestDto request, Map<Long, Card> lockedCards, UserPrincipal user) {
+        Card toCard = withdraw(request, lockedCards, user);
+        toCard.setBalance(toCard.getBalance().add(request.amount()));
+    }
+
+    /**
+     * Validates a transfer and debits the locked source card in memory.
+     *
+     * @return the validated destination card, not yet credited
+     */
+    private Card withdraw(TransferRequestDto request, Map<Long, Card> cards, UserPrincipal user) {
+        Card fromCard = validateCard(cards.get(request.fromCardId()), request.fromCardId(), user);
+        Card toCard = validateCard(cards.get(request.toCardId()), request.toCardId(), user);
 
         if (fromCard.getExpiryDate().isBefore(LocalDate.now())) {
             log.warn("Transfer failed: Source card #{} is expired. Expiry date: {}", fromCard.getId(), fromCard.getExpiryDate());
-            throw new CardOperationException("The source card has expired.");
+            throw new TransferFailedException(Reason.CARD_EXPIRED, "The source card has expired.");
         }
 
         if (fromCard.getStatus() != CardStatus.ACTIVE) {
             log.warn("Transfer failed: Source card #{} is not active. Status: {}", fromCard.getId(), fromCard.getStatus());
-            throw new CardOperationException("The source card is not active.");
+            throw new TransferFailedException(Reason.CARD_NOT_ACTIVE, "The source card is not active.");
         }
 
+        if (fromCard.getBalance().compareTo(request.amount()) < 0) {
+            // part of the balance of a hot card may still be in its shards
+            cardBalanceShardService.foldInto(fromCard);
+        }
         if (fromCard.getBalance().compareTo(request.amount()) < 0) {
             log.warn("Transfer failed: Insufficient funds on card #{}. Balance: {}, Requested: {}",
                     fromCard.getId(), fromCard.getBalance(), request.amount());
-            throw new CardOperationException("Insufficient funds on the source card.");
+            throw new TransferFailedException(Reason.INSUFFICIENT_FUNDS, "Insufficient funds on the source card.");
         }
 
         if (request.amount().compareTo(BigDecimal.ZERO) <= 0) {
             log.warn("Transfer failed: Amount must be positive. Requested: {}", request.amount());
-            throw new CardOperationException("Transfer amount must be positive.");
+            throw new TransferFailedException(Reason.NON_POSITIVE_AMOUNT, "Transfer amount must be positive.");
         }
 
         fromCard.setBalance(fromCard.getBalance().subtract(request.amount()));
-        toCard.setBalance(toCard.getBalance().add(request.amount()));
+        return toCard;
+    }
 
-        cardRepository.save(fromCard);
-        cardRepository.save(toCard);
+    private void transferInDatabase(TransferRequestDto request, UserPrincipal user) {
+        int resultCode = cardRepository.transferBetweenCards(
+                user.id(), request.fromCardId(), request.toCardId(), request.amount());
+        if (resultCode != 0) {
+            log.warn("Transfer failed: database engine returned result code {} for transfer from card #{} to #{}",
+                    resultCode, request.fromCardId(), request.toCardId());
+            throw failure(resultCode, request);
+        }
+    }
 
-        log.info("Transfer from card #{} to #{} for amount {} completed successfully for user '{}'",
-                fromCard.getId(), toCard.getId(), request.amount(), user.getUsername());
+    /**
+     * Maps the result codes of {@code transfer_between_cards} to the failures the JPA engine reports.
+     */
+    private static TransferFailedException failure(int resultCode, TransferRequestDto request) {
+        return switch (resultCode) {
+            case 1 -> new TransferFailedException(Reason.SAME_CARD, "Source and destination cards must be different.");
+            case 2 -> new TransferFailedException(Reason.CARD_NOT_FOUND,
+                    String.format("Card with id %d not found.", request.fromCardId()));
+            case 3 -> new TransferFailedException(Reason.ACCESS_DENIED,
+                    String.format("Access denied to card %d", request.fromCardId()));
+            case 4 -> new TransferFailedException(Reason.CARD_NOT_FOUND,
+                    String.format("Card with id %d not found.", request.toCardId()));
+            case 5 -> new TransferFailedException(Reason.ACCESS_DENIED,
+                    String.format("Access denied to card %d", request.toCardId()));
+            case 6 -> new TransferFailedException(Reason.CARD_EXPIRED, "The source card has expired.");
+            case 7 -> new TransferFailedException(Reason.CARD_NOT_ACTIVE, "The source card is not active.");
+            case 8 -> new TransferFailedException(Reason.INSUFFICIENT_FUNDS, "Insufficient funds on the source card.");
+            case 9 -> new TransferFailedException(Reason.NON_POSITIVE_AMOUNT, "Transfer amount must be positive.");
+            default -> throw new IllegalStateException("Unknown transfer result code: " + resultCode);
+        };
+    }
+
+    /**
+     * Row-locks those of the cards that belong to {@code user} in ascending id order, so A->B and B->A transfers
+     * cannot deadlock each other. Cards of other users are left unlocked and missing from the result.
+     */
+    private Map<Long, Card> lockOwnCards(Collection<Long> cardIds, UserPrincipal user) {
+        return cardRepository.findAllByIdAndUserIdForUpdate(cardIds, user.id()).stream()
+                .collect(Collectors.toMap(Card::getId, Function.identity()));
     }
 
-    private Card findAndValidateCard(Long cardId, User user) {
-        Card card = cardRepository.findById(cardId)
-                .orElseThrow(() -> new CardOperationException(String.format("Card with id %d not found.", cardId)));
-        if (!card.getUser().getId().equals(user.getId())) {
+    private Card validateCard(Card card, Long cardId, UserPrincipal user) {
+        if (card == null) {
+            // not locked because it is missing or another user's; tell the two apart without locking it
+            if (cardRepository.findUserIdById(cardId).isPresent()) {
+                log.warn("User '{}' attempted to access card #{} of another user", user.getUsername(), cardId);
+                throw new TransferFailedException(Reason.ACCESS_DENIED, String.format("Access denied to card %d", cardId));
+            }
+            throw new TransferFailedException(Reason.CARD_NOT_FOUND, String.format("Card with id %d not found.", cardId));
+        }
+        if (!card.getUser().getId().equals(user.id())) {
             log.warn("User '{}' attempted to access card #{} owned by user '{}'",
                     user.getUsername(), card.getId(), card.getUser().getUsername());
-            throw new CardOperationException(String.format("Access denied to card %d", cardId));
+            throw new TransferFailedException(Reason.ACCESS_DENIED, String.format("Access denied to card %d", cardId));
         }
         return card;
     }
+
+    public enum Engine {
+        JPA,
+        DATABASE
+    }
 }
\ No newline at end of file
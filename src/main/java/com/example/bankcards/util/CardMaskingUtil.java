@@ -3,17 +3,33 @@ package com.example.bankcards.util;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.util.Arrays;
+
+/**
+ * Masks card numbers as space-separated groups of four. Each call copies a precomputed, fully masked template
+ * for the number's length and writes the revealed digits straight into it, so masking allocates only the result.
+ */
 @Component
 public class CardMaskingUtil {
 
+    private static final int STORED_DIGITS = 4;
+    private static final int GROUP_SIZE = 4;
+    // PANs are at most 19 digits; longer inputs are masked without a cached template
+    private static final int MAX_CACHED_LENGTH = 32;
+
     private final int visibleDigits;
     private final char maskChar;
+    private final char[][] maskedTemplates;
 
     public CardMaskingUtil(
                             @Value("${app.masking.card-number-visible-digits}") int visibleDigits,
                             @Value("${app.masking.card-number-mask-char}") char maskChar) {
         this.visibleDigits = visibleDigits;
         this.maskChar = maskChar;
+        this.maskedTemplates = new char[MAX_CACHED_LENGTH + 1][];
+        for (int length = 1; length <= MAX_CACHED_LENGTH; length++) {
+            this.maskedTemplates[length] = buildMaskedTemplate(length);
+        }
     }
 
     public String maskCardNumber(String cardNumber) {
@@ -26,18 +42,55 @@ public class CardMaskingUtil {
         }
 
         int totalLength = cardNumber.length();
-        String lastDigits = cardNumber.substring(totalLength - this.visibleDigits);
-        String mask = String.valueOf(this.maskChar).repeat(totalLength - this.visibleDigits);
-        String maskedNumber = mask + lastDigits;
-
-        StringBuilder formattedMask = new StringBuilder();
-        for (int i = 0; i < maskedNumber.length(); i++) {
-            if (i > 0 && i % 4 == 0) {
-                formattedMask.append(' ');
-            }
-            formattedMask.append(maskedNumber.charAt(i));
+        return reveal(totalLength, cardNumber, totalLength - this.visibleDigits, this.visibleDigits);
+    }
+
+    /**
+     * Masks a card number known only by its stored trailing digits and total length.
+     * At most {@code lastDigits.length()} digits can be revealed, whatever {@code visibleDigits} is set to.
+     */
+    public String maskCardNumber(String lastDigits, Integer cardNumberLength) {
+        if (lastDigits == null || cardNumberLength == null) {
+            return "";
+        }
+
+        if (cardNumberLength <= lastDigits.length()) {
+            return lastDigits;
         }
 
-        return formattedMask.toString();
+        int shownDigits = Math.min(this.visibleDigits, lastDigits.length());
+        return reveal(cardNumberLength, lastDigits, lastDigits.length() - shownDigits, shownDigits);
+    }
+
+    public static String lastFourDigits(String cardNumber) {
+        return cardNumber.length() <= STORED_DIGITS
+                ? cardNumber
+                : cardNumber.substring(cardNumber.length() - STORED_DIGITS);
+    }
+
+    /**
+     * Formats a {@code totalLength}-digit number whose last {@code count} digits are
+     * {@code digits[from, from + count)} and whose other digits are masked.
+     */
+    private String reveal(int totalLength, String digits, int from, int count) {
+        char[] formatted = totalLength <= MAX_CACHED_LENGTH
+                ? this.maskedTemplates[totalLength].clone()
+                : buildMaskedTemplate(totalLength);
+        for (int position = totalLength - count, source = from; position < totalLength; position++, source++) {
+            formatted[position + position / GROUP_SIZE] = digits.charAt(source);
+        }
+        return new String(formatted);
+    }
+
+    /**
+     * Builds the grouped form of a fully masked number, e.g. {@code **** **** **** ****} for 16 digits.
+     */
+    private char[] buildMaskedTemplate(int totalLength) {
+        char[] template = new char[totalLength + (totalLength - 1) / GROUP_SIZE];
+        Arrays.fill(template, this.maskChar);
+        for (int position = GROUP_SIZE; position < totalLength; position += GROUP_SIZE) {
+            template[position + position / GROUP_SIZE - 1] = ' ';
+        }
+        return template;
     }
 }
@@ -0,0 +1,186 @@
+package com.example.bankcards.util;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.util.Base64;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Concurrency-safe AES engine for card numbers.
+ * <p>
+ * {@link Cipher} instances are not thread-safe, so each caller borrows a {@link CipherContext}
+ * from a lock-free pool. A context holds ciphers that are initialised once and scratch buffers
+ * that are reused across calls; Base64 is encoded and decoded with {@link Base64} straight into those buffers.
+ * Borrowing rather than {@code ThreadLocal} keeps the number of contexts bounded by actual
+ * concurrency, which also holds when requests run on virtual threads.
+ */
+public final class CardNumberCipher {
+
+    private static final String ALGORITHM = "AES/ECB/PKCS5Padding";
+    private static final int DEFAULT_MAX_IDLE_CONTEXTS = Math.max(64, Runtime.getRuntime().availableProcessors() * 8);
+    private static final int BLOCK_SIZE = 16;
+    private static final Base64.Encoder BASE64_ENCODER = Base64.getEncoder();
+    private static final Base64.Decoder BASE64_DECODER = Base64.getDecoder();
+
+    private final Key key;
+    private final int maxIdleContexts;
+    private final ConcurrentLinkedQueue<CipherContext> idleContexts = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger idleCount = new AtomicInteger();
+
+    public CardNumberCipher(byte[] keyBytes) {
+        this(keyBytes, DEFAULT_MAX_IDLE_CONTEXTS);
+    }
+
+    public CardNumberCipher(byte[] keyBytes, int maxIdleContexts) {
+        this.key = new SecretKeySpec(keyBytes, "AES");
+        this.maxIdleContexts = maxIdleContexts;
+        release(newContext());
+    }
+
+    public String encrypt(String plainText) {
+        CipherContext context = borrow();
+        try {
+            int plainLength = context.writeUtf8(plainText);
+            int encryptedLength = context.encryptor.getOutputSize(plainLength);
+            byte[] encrypted = context.cipherTextBuffer(encryptedLength);
+            context.encryptor.doFinal(context.plain, 0, plainLength, encrypted, 0);
+            String encoded = encodeBase64(encrypted, context);
+            release(context);
+            return encoded;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Error encrypting card number", e);
+        }
+    }
+
+    public String decrypt(String encoded) {
+        CipherContext context = borrow();
+        try {
+            int encryptedLength = decodeBase64(encoded, context);
+            byte[] plain = context.plainBuffer(encryptedLength);
+            int plainLength = context.decryptor.doFinal(context.encrypted, 0, encryptedLength, plain, 0);
+            String decrypted = new String(plain, 0, plainLength, StandardCharsets.UTF_8);
+            release(context);
+            return decrypted;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Error decrypting card number", e);
+        }
+    }
+
+    private CipherContext borrow() {
+        CipherContext context = idleContexts.poll();
+        if (context == null) {
+            return newContext();
+        }
+        idleCount.decrementAndGet();
+        return context;
+    }
+
+    private void release(CipherContext context) {
+        if (idleCount.incrementAndGet() <= maxIdleContexts) {
+            idleContexts.offer(context);
+        } else {
+            idleCount.decrementAndGet();
+        }
+    }
+
+    private CipherContext newContext() {
+        try {
+            Cipher encryptor = Cipher.getInstance(ALGORITHM);
+            encryptor.init(Cipher.ENCRYPT_MODE, key);
+            Cipher decryptor = Cipher.getInstance(ALGORITHM);
+            decryptor.init(Cipher.DECRYPT_MODE, key);
+            return new CipherContext(encryptor, decryptor);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String encodeBase64(byte[] encrypted, CipherContext context) {
+        byte[] out = context.asciiBuffer(4 * ((encrypted.length + 2) / 3));
+        int outLength = BASE64_ENCODER.encode(encrypted, out);
+        return new String(out, 0, outLength, StandardCharsets.ISO_8859_1);
+    }
+
+    private static int decodeBase64(String encoded, CipherContext context) {
+        int length = encoded.length();
+        byte[] ascii = context.asciiBuffer(length);
+        for (int i = 0; i < length; i++) {
+            char c = encoded.charAt(i);
+            if (c >= 0x80) {
+                throw new IllegalArgumentException("Invalid encrypted card number");
+            }
+            ascii[i] = (byte) c;
+        }
+        int decodedLength = BASE64_DECODER.decode(ascii, context.encryptedBuffer(length * 3 / 4));
+        if (decodedLength == 0 || decodedLength % BLOCK_SIZE != 0) {
+            throw new IllegalArgumentException("Invalid encrypted card number");
+        }
+        return decodedLength;
+    }
+
+    private static final class CipherContext {
+
+        private final Cipher encryptor;
+        private final Cipher decryptor;
+        private byte[] plain = new byte[32];
+        private byte[] cipherText = new byte[32];
+        private byte[] encrypted = new byte[48];
+        private byte[] ascii = new byte[44];
+
+        private CipherContext(Cipher encryptor, Cipher decryptor) {
+            this.encryptor = encryptor;
+            this.decryptor = decryptor;
+        }
+
+        private int writeUtf8(String value) {
+            int length = value.length();
+            byte[] buffer = plainBuffer(length);
+            for (int i = 0; i < length; i++) {
+                char c = value.charAt(i);
+                if (c >= 0x80) {
+                    byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+                    System.arraycopy(utf8, 0, plainBuffer(utf8.length), 0, utf8.length);
+                    return utf8.length;
+                }
+                buffer[i] = (byte) c;
+            }
+            return length;
+        }
+
+        private byte[] plainBuffer(int size) {
+            if (plain.length < size) {
+                plain = new byte[size];
+            }
+            return plain;
+        }
+
+        private byte[] encryptedBuffer(int size) {
+            if (encrypted.length < size) {
+                encrypted = new byte[size];
+            }
+            return encrypted;
+        }
+
+        /**
+         * {@link Base64.Encoder} and {@link Base64.Decoder} only take whole arrays, so the buffers they read are kept
+         * at exactly the size in use. Card numbers all encrypt and encode to the same lengths, so they are reused.
+         */
+        private byte[] cipherTextBuffer(int size) {
+            if (cipherText.length != size) {
+                cipherText = new byte[size];
+            }
+            return cipherText;
+        }
+
+        private byte[] asciiBuffer(int size) {
+            if (ascii.length != size) {
+                ascii = new byte[size];
+            }
+            return ascii;
+        }
+    }
+}
@@ -1,33 +1,31 @@
 package com.example.bankcards.util;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.persistence.AttributeConverter;
 import jakarta.persistence.Converter;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
-import javax.crypto.Cipher;
-import javax.crypto.spec.SecretKeySpec;
-import java.security.Key;
-import java.util.Base64;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
 
 @Component
 @Converter(autoApply = true)
 public class CardNumberConverter implements AttributeConverter<String, String> {
 
-    private static final String ALGORITHM = "AES/ECB/PKCS5Padding";
-    private final Key key;
-    private final Cipher cipher;
+    private final CardNumberCipher cipher;
+    private final Timer encryptTimer;
+    private final Timer decryptTimer;
 
-    public CardNumberConverter(@Value("${app.encryption.secret}") String secret) {
-        if (secret == null || (secret.length() != 16 && secret.length() != 24 && secret.length() != 32)) {
+    public CardNumberConverter(@Value("${app.encryption.secret}") String secret, MeterRegistry meterRegistry) {
+        byte[] keyBytes = secret == null ? new byte[0] : secret.getBytes(StandardCharsets.UTF_8);
+        if (keyBytes.length != 16 && keyBytes.length != 24 && keyBytes.length != 32) {
             throw new IllegalArgumentException("Invalid AES key length. Must be 16, 24, or 32 bytes.");
         }
-        this.key = new SecretKeySpec(secret.getBytes(), "AES");
-        try {
-            this.cipher = Cipher.getInstance(ALGORITHM);
-        } catch (Exception e) {
-            throw new IllegalStateException(e);
-        }
+        this.cipher = new CardNumberCipher(keyBytes);
+        this.encryptTimer = cryptoTimer(meterRegistry, "encrypt");
+        this.decryptTimer = cryptoTimer(meterRegistry, "decrypt");
     }
 
     @Override
@@ -35,11 +33,13 @@ public class CardNumberConverter implements AttributeConverter<String, String> {
         if (cardNumber == null) {
             return null;
         }
+        long startedAt = System.nanoTime();
         try {
-            cipher.init(Cipher.ENCRYPT_MODE, key);
-            return Base64.getEncoder().encodeToString(cipher.doFinal(cardNumber.getBytes()));
+            return cipher.encrypt(cardNumber);
         } catch (Exception e) {
             throw new RuntimeException("Error encrypting card number", e);
+        } finally {
+            encryptTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
         }
     }
 
@@ -48,11 +48,20 @@ public class CardNumberConverter implements AttributeConverter<String, String> {
         if (dbData == null) {
             return null;
         }
+        long startedAt = System.nanoTime();
         try {
-            cipher.init(Cipher.DECRYPT_MODE, key);
-            return new String(cipher.doFinal(Base64.getDecoder().decode(dbData)));
+            return cipher.decrypt(dbData);
         } catch (Exception e) {
             throw new RuntimeException("Error decrypting card number", e);
+        } finally {
+            decryptTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
         }
     }
+
+    private static Timer cryptoTimer(MeterRegistry meterRegistry, String operation) {
+        return Timer.builder("bank.card_number.crypto")
+                .description("AES card number encryption and decryption")
+                .tag("operation", operation)
+                .register(meterRegistry);
+    }
 }
@@ -0,0 +1,72 @@
+package com.example.bankcards.util;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.HexFormat;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Computes the keyed HMAC-SHA256 blind index of a card number, stored next to the encrypted value
+ * so a card can be found or checked for uniqueness without decrypting any row.
+ * {@link Mac} instances are not thread-safe, so callers borrow one from a lock-free pool that, like the one in
+ * {@link CardNumberCipher}, keeps at most a bounded number of idle instances after a burst.
+ */
+@Component
+public class CardNumberHasher {
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final int MAX_IDLE_MACS = Math.max(64, Runtime.getRuntime().availableProcessors() * 8);
+    private static final HexFormat HEX = HexFormat.of();
+
+    private final SecretKeySpec key;
+    private final ConcurrentLinkedQueue<Mac> idleMacs = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger idleCount = new AtomicInteger();
+
+    public CardNumberHasher(@Value("${app.encryption.blind-index-secret}") String secret) {
+        if (secret == null || secret.length() < 32) {
+            throw new IllegalArgumentException("Invalid blind index key length. Must be at least 32 characters.");
+        }
+        this.key = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), ALGORITHM);
+        release(newMac());
+    }
+
+    public String hash(String cardNumber) {
+        Mac mac = borrow();
+        byte[] digest = mac.doFinal(cardNumber.getBytes(StandardCharsets.UTF_8));
+        release(mac);
+        return HEX.formatHex(digest);
+    }
+
+    private Mac borrow() {
+        Mac mac = idleMacs.poll();
+        if (mac == null) {
+            return newMac();
+        }
+        idleCount.decrementAndGet();
+        return mac;
+    }
+
+    private void release(Mac mac) {
+        if (idleCount.incrementAndGet() <= MAX_IDLE_MACS) {
+            idleMacs.offer(mac);
+        } else {
+            idleCount.decrementAndGet();
+        }
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.bankcards.util;
+
+import com.example.bankcards.exception.PreconditionFailedException;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Builds and compares HTTP entity tags ({@code ETag}, {@code If-None-Match}, {@code If-Match}).
+ */
+public final class EntityTags {
+
+    private static final Pattern TAG = Pattern.compile("\\*|(W/)?\"([^\"]*)\"");
+
+    private EntityTags() {
+    }
+
+    /**
+     * A weak tag that changes whenever any of {@code parts} does, for representations built from several sources.
+     */
+    public static String weak(Object... parts) {
+        String joined = Arrays.stream(parts).map(String::valueOf).collect(Collectors.joining("|"));
+        return "W/\"" + DigestUtils.md5DigestAsHex(joined.getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+
+    /**
+     * The strong tag of a single row at {@code version}.
+     */
+    public static String ofVersion(long version) {
+        return "\"" + version + "\"";
+    }
+
+    /**
+     * Whether an {@code If-None-Match} header lists {@code tag}, using the weak comparison GET requires.
+     */
+    public static boolean noneMatchHits(String ifNoneMatch, String tag) {
+        String opaque = opaque(tag);
+        for (String listed : parse(ifNoneMatch)) {
+            if (listed.equals("*") || opaque(listed).equals(opaque)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The version an {@code If-Match} header requires, or {@code null} when it is absent or {@code *}.
+     * Only a single strong version tag, as built by {@link #ofVersion}, can match; anything else fails
+     * the precondition, since a weak tag never matches under the strong comparison {@code If-Match} uses.
+     */
+    public static Long requiredVersion(String ifMatch) {
+        if (ifMatch == null) {
+            return null;
+        }
+        List<String> tags = parse(ifMatch);
+        if (tags.contains("*")) {
+            return null;
+        }
+        if (tags.size() == 1 && !tags.get(0).startsWith("W/")) {
+            String tag = tags.get(0);
+            try {
+                return Long.parseLong(tag.substring(1, tag.length() - 1));
+            } catch (NumberFormatException e) {
+                // falls through to the error below
+            }
+        }
+        throw new PreconditionFailedException("If-Match does not match the current version of the card.");
+    }
+
+    private static List<String> parse(String header) {
+        List<String> tags = new ArrayList<>();
+        Matcher matcher = TAG.matcher(header);
+        while (matcher.find()) {
+            tags.add(matcher.group());
+        }
+        return tags;
+    }
+
+    private static String opaque(String tag) {
+        return tag.startsWith("W/") ? tag.substring(2) : tag;
+    }
+}
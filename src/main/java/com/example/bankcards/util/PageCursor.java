@@ -0,0 +1,43 @@
+package com.example.bankcards.util;
+
+import com.example.bankcards.exception.CardOperationException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Encodes the keyset position of cursor-paginated listings as an opaque, URL-safe token.
+ */
+public final class PageCursor {
+
+    private static final String PREFIX = "id:";
+
+    private PageCursor() {
+    }
+
+    public static String encode(long lastId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((PREFIX + lastId).getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Returns the id to continue after, or 0 for a missing cursor (the first page).
+     */
+    public static long decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0;
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII);
+            if (decoded.startsWith(PREFIX)) {
+                long lastId = Long.parseLong(decoded.substring(PREFIX.length()));
+                if (lastId >= 0) {
+                    return lastId;
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            // falls through to the error below; NumberFormatException is an IllegalArgumentException too
+        }
+        throw new CardOperationException("Invalid pagination cursor.");
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.bankcards.benchmark;
+
+import com.example.bankcards.dto.CardSummary;
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.entity.User;
+import com.example.bankcards.entity.enums.CardStatus;
+import com.example.bankcards.service.CardService;
+import com.example.bankcards.util.CardMaskingUtil;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of turning one listing page into {@code CardDto}s with {@link CardService#mapToCardDto},
+ * from the {@link CardSummary} projection used by listings and from managed {@link Card} entities.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CardDtoMappingBenchmark {
+
+    @Param({"20", "100"})
+    private int pageSize;
+
+    private CardService cardService;
+    private CardSummary[] summaries;
+    private Card[] cards;
+
+    @Setup
+    public void setUp() {
+        // mapping never touches the repository or the page cache
+        cardService = new CardService(null, new CardMaskingUtil(4, '*'), null, new SimpleMeterRegistry());
+        User owner = new User();
+        owner.setId(1L);
+        owner.setOwnerName("Benchmark Owner");
+
+        summaries = new CardSummary[pageSize];
+        cards = new Card[pageSize];
+        LocalDate expiryDate = LocalDate.now().plusYears(3);
+        for (int i = 0; i < pageSize; i++) {
+            String cardNumber = String.format("4000%012d", i);
+            BigDecimal balance = BigDecimal.valueOf(100_000 + i, 2);
+            summaries[i] = new CardSummary((long) i, CardMaskingUtil.lastFourDigits(cardNumber), cardNumber.length(),
+                    owner.getOwnerName(), expiryDate, CardStatus.ACTIVE, balance, 0L);
+
+            Card card = new Card();
+            card.setId((long) i);
+            card.setUser(owner);
+            card.setCardNumber(cardNumber);
+            card.setExpiryDate(expiryDate);
+            card.setStatus(CardStatus.ACTIVE);
+            card.setBalance(balance);
+            cards[i] = card;
+        }
+    }
+
+    @Benchmark
+    public void mapSummaries(Blackhole blackhole) {
+        for (CardSummary summary : summaries) {
+            blackhole.consume(cardService.mapToCardDto(summary));
+        }
+    }
+
+    @Benchmark
+    public void mapEntities(Blackhole blackhole) {
+        for (Card card : cards) {
+            blackhole.consume(cardService.mapToCardDto(card));
+        }
+    }
+}
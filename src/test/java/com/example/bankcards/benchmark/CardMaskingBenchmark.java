@@ -0,0 +1,66 @@
+package com.example.bankcards.benchmark;
+
+import com.example.bankcards.util.CardMaskingUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of masking one listing page with each {@link CardMaskingUtil#maskCardNumber} overload:
+ * from the decrypted card number, and from the stored last four digits and length.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CardMaskingBenchmark {
+
+    @Param({"20", "100"})
+    private int pageSize;
+
+    private CardMaskingUtil cardMaskingUtil;
+    private String[] cardNumbers;
+    private String[] lastDigits;
+    private int[] lengths;
+
+    @Setup
+    public void setUp() {
+        cardMaskingUtil = new CardMaskingUtil(4, '*');
+        cardNumbers = new String[pageSize];
+        lastDigits = new String[pageSize];
+        lengths = new int[pageSize];
+        for (int i = 0; i < pageSize; i++) {
+            // mostly 16-digit numbers with some 19-digit ones, as issued by the card networks
+            cardNumbers[i] = i % 5 == 0 ? String.format("6200%015d", i) : String.format("4000%012d", i);
+            lastDigits[i] = CardMaskingUtil.lastFourDigits(cardNumbers[i]);
+            lengths[i] = cardNumbers[i].length();
+        }
+    }
+
+    @Benchmark
+    public void maskFullNumbers(Blackhole blackhole) {
+        for (String cardNumber : cardNumbers) {
+            blackhole.consume(cardMaskingUtil.maskCardNumber(cardNumber));
+        }
+    }
+
+    @Benchmark
+    public void maskStoredDigits(Blackhole blackhole) {
+        for (int i = 0; i < pageSize; i++) {
+            blackhole.consume(cardMaskingUtil.maskCardNumber(lastDigits[i], lengths[i]));
+        }
+    }
+}
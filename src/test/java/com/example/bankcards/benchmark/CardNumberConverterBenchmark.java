@@ -0,0 +1,89 @@
+package com.example.bankcards.benchmark;
+
+import com.example.bankcards.util.CardNumberConverter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of {@link CardNumberConverter} at 1, 8 and 32 threads.
+ * The page benchmarks decrypt 100 card numbers per operation, i.e. one full card listing page.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CardNumberConverterBenchmark {
+
+    private static final int PAGE_SIZE = 100;
+
+    private CardNumberConverter converter;
+    private String cardNumber;
+    private String[] encryptedPage;
+
+    @Setup
+    public void setUp() {
+        converter = new CardNumberConverter("p7sA2fG4jX9mK5hVdC1tYqR8nL3wE6zB", new SimpleMeterRegistry());
+        cardNumber = "4000123412341234";
+        encryptedPage = new String[PAGE_SIZE];
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            encryptedPage[i] = converter.convertToDatabaseColumn(String.format("4000%012d", i));
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public String encrypt_1thread() {
+        return converter.convertToDatabaseColumn(cardNumber);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public String encrypt_8threads() {
+        return converter.convertToDatabaseColumn(cardNumber);
+    }
+
+    @Benchmark
+    @Threads(32)
+    public String encrypt_32threads() {
+        return converter.convertToDatabaseColumn(cardNumber);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void decryptPage_1thread(Blackhole blackhole) {
+        decryptPage(blackhole);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void decryptPage_8threads(Blackhole blackhole) {
+        decryptPage(blackhole);
+    }
+
+    @Benchmark
+    @Threads(32)
+    public void decryptPage_32threads(Blackhole blackhole) {
+        decryptPage(blackhole);
+    }
+
+    private void decryptPage(Blackhole blackhole) {
+        for (String encrypted : encryptedPage) {
+            blackhole.consume(converter.convertToEntityAttribute(encrypted));
+        }
+    }
+}
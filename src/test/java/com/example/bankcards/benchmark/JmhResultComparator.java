@@ -0,0 +1,118 @@
+package com.example.bankcards.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compares two JMH JSON result files and exits with status 1 when any benchmark regressed.
+ * <p>
+ * A benchmark regresses when its score got worse by more than the threshold (10% by default) and by more than
+ * the two runs' combined error margins, or when its allocation per operation ({@code gc.alloc.rate.norm})
+ * grew by more than the threshold. Run with
+ * {@code mvn -Pbenchmark test-compile exec:exec@jmh-compare -Djmh.baseline=<old.json> [-Djmh.result=<new.json>]}.
+ */
+public final class JmhResultComparator {
+
+    private static final String ALLOCATION_METRIC = "gc.alloc.rate.norm";
+    // Allocation differences below this many bytes per operation are escape-analysis noise
+    private static final double ALLOCATION_NOISE_BYTES = 16;
+
+    private JmhResultComparator() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: JmhResultComparator <baseline.json> <current.json> [threshold]");
+            System.exit(2);
+        }
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : 0.10;
+        Map<String, Result> baseline = read(Path.of(args[0]));
+        Map<String, Result> current = read(Path.of(args[1]));
+
+        int regressions = 0;
+        System.out.printf("%-70s %14s %14s %9s %12s %12s  %s%n",
+                "Benchmark", "Baseline", "Current", "Change", "Base B/op", "Curr B/op", "Verdict");
+        for (Map.Entry<String, Result> entry : current.entrySet()) {
+            Result now = entry.getValue();
+            Result before = baseline.remove(entry.getKey());
+            if (before == null) {
+                System.out.printf("%-70s %14s %14.3f %9s %12s %12s  NEW%n",
+                        entry.getKey(), "-", now.score(), "-", "-", format(now.allocatedBytes()));
+                continue;
+            }
+
+            double change = (now.score() - before.score()) / before.score();
+            double worsening = now.higherIsBetter() ? -change : change;
+            boolean slower = worsening > threshold
+                    && Math.abs(now.score() - before.score()) > errorOrZero(now) + errorOrZero(before);
+            boolean allocatesMore = now.allocatedBytes() - before.allocatedBytes() > ALLOCATION_NOISE_BYTES
+                    && now.allocatedBytes() > before.allocatedBytes() * (1 + threshold);
+
+            String verdict;
+            if (slower || allocatesMore) {
+                regressions++;
+                verdict = "REGRESSION" + (slower ? " (score)" : "") + (allocatesMore ? " (allocation)" : "");
+            } else if (worsening < -threshold) {
+                verdict = "improved";
+            } else {
+                verdict = "ok";
+            }
+            System.out.printf("%-70s %14.3f %14.3f %+8.1f%% %12s %12s  %s%n",
+                    entry.getKey(), before.score(), now.score(), change * 100,
+                    format(before.allocatedBytes()), format(now.allocatedBytes()), verdict);
+        }
+        baseline.keySet().forEach(name -> System.out.printf("%-70s  MISSING from current run%n", name));
+
+        System.out.printf("%d regression(s) at a %.0f%% threshold%n", regressions, threshold * 100);
+        System.exit(regressions > 0 ? 1 : 0);
+    }
+
+    private static Map<String, Result> read(Path file) throws IOException {
+        Map<String, Result> results = new LinkedHashMap<>();
+        for (JsonNode run : new ObjectMapper().readTree(Files.readString(file))) {
+            String mode = run.path("mode").asText();
+            JsonNode primary = run.path("primaryMetric");
+            JsonNode allocation = run.path("secondaryMetrics").path(ALLOCATION_METRIC);
+            results.put(key(run), new Result(
+                    primary.path("score").asDouble(),
+                    primary.path("scoreError").asDouble(Double.NaN),
+                    "thrpt".equals(mode),
+                    allocation.isMissingNode() ? Double.NaN : allocation.path("score").asDouble()));
+        }
+        return results;
+    }
+
+    /**
+     * Identifies a result by benchmark method, mode, thread count and parameter values.
+     */
+    private static String key(JsonNode run) {
+        String benchmark = run.path("benchmark").asText();
+        // drop the package, keeping Class.method
+        String shortName = benchmark.substring(benchmark.lastIndexOf('.', benchmark.lastIndexOf('.') - 1) + 1);
+        StringBuilder key = new StringBuilder(shortName)
+                .append(" [").append(run.path("mode").asText())
+                .append(", ").append(run.path("threads").asInt()).append("t");
+        Map<String, String> params = new TreeMap<>();
+        run.path("params").fields().forEachRemaining(param -> params.put(param.getKey(), param.getValue().asText()));
+        params.forEach((name, value) -> key.append(", ").append(name).append('=').append(value));
+        return key.append(']').toString();
+    }
+
+    private static double errorOrZero(Result result) {
+        return Double.isNaN(result.scoreError()) ? 0 : result.scoreError();
+    }
+
+    private static String format(double bytes) {
+        return Double.isNaN(bytes) ? "-" : String.format("%.1f", bytes);
+    }
+
+    private record Result(double score, double scoreError, boolean higherIsBetter, double allocatedBytes) {
+    }
+}
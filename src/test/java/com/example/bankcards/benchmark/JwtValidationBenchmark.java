@@ -0,0 +1,103 @@
+package com.example.bankcards.benchmark;
+
+import com.example.bankcards.entity.User;
+import com.example.bankcards.entity.enums.Role;
+import com.example.bankcards.security.JwtService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.security.Key;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the JWT work done by {@code JwtAuthenticationFilter} per request:
+ * the former extractUsername + isTokenValid sequence (three signature checks, key re-derived each time)
+ * against a single verification and against a verified-claims cache hit,
+ * plus token issuing at login and the {@link JwtService#isTokenValid} check.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtValidationBenchmark {
+
+    private static final String SECRET =
+            "9dXn1yP0eP7M4uPvvUqhvHqQ5eG3rb6TgTgF3KxQ1nq7wYFf1JgJ4M4n2qE5n6s1v8QyY4a1Lr9b0c2d3e4f5g6h7i8j9k0l";
+
+    private JwtService cachingJwtService;
+    private JwtService uncachedJwtService;
+    private User user;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        cachingJwtService = new JwtService(SECRET, TimeUnit.HOURS.toMillis(1), 10_000);
+        uncachedJwtService = new JwtService(SECRET, TimeUnit.HOURS.toMillis(1), 0);
+
+        user = new User();
+        user.setId(42L);
+        user.setUsername("benchmark-user");
+        user.setRole(Role.USER);
+        token = cachingJwtService.generateToken(user);
+    }
+
+    @Benchmark
+    public boolean legacyFilterPath() {
+        String username = legacyExtractAllClaims(token).getSubject();
+        String tokenUsername = legacyExtractAllClaims(token).getSubject();
+        Date expiration = legacyExtractAllClaims(token).getExpiration();
+        return username.equals(tokenUsername) && !expiration.before(new Date());
+    }
+
+    @Benchmark
+    public Claims singleVerification() {
+        return uncachedJwtService.resolveClaims(token).orElseThrow();
+    }
+
+    @Benchmark
+    public Claims cachedVerification() {
+        return cachingJwtService.resolveClaims(token).orElseThrow();
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return cachingJwtService.generateToken(user);
+    }
+
+    @Benchmark
+    public boolean isTokenValidCached() {
+        return cachingJwtService.isTokenValid(token, user);
+    }
+
+    @Benchmark
+    public boolean isTokenValidUncached() {
+        return uncachedJwtService.isTokenValid(token, user);
+    }
+
+    private static Claims legacyExtractAllClaims(String token) {
+        return Jwts.parserBuilder()
+                .setSigningKey(legacySignInKey())
+                .build()
+                .parseClaimsJws(token)
+                .getBody();
+    }
+
+    private static Key legacySignInKey() {
+        return Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET));
+    }
+}
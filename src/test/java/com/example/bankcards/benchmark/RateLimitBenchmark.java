@@ -0,0 +1,100 @@
+package com.example.bankcards.benchmark;
+
+import com.example.bankcards.entity.enums.Role;
+import com.example.bankcards.security.RateLimitFilter;
+import com.example.bankcards.security.RateLimiter;
+import com.example.bankcards.security.UserPrincipal;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures what {@link RateLimitFilter} adds to a request: a token taken from one hot bucket, from one of
+ * {@value #USERS} buckets, the same with four threads sharing the hot bucket, and the whole filter around a no-op chain.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RateLimitBenchmark {
+
+    private static final int USERS = 10_000;
+    private static final FilterChain NO_OP_CHAIN = (request, response) -> { };
+
+    // limits high enough that every call takes the acquire path rather than the cheaper rejection
+    private RateLimiter rateLimiter;
+    private RateLimitFilter rateLimitFilter;
+    private Long[] userIds;
+
+    @Setup
+    public void setUp() {
+        rateLimiter = new RateLimiter("benchmark", 1_000_000, 1e9, Duration.ofMinutes(10), 100_000);
+        rateLimitFilter = new RateLimitFilter(true, Duration.ofMinutes(10), 100_000,
+                1_000_000, 1e9, 1_000_000, 1e9, 1_000_000, 1e9, new SimpleMeterRegistry());
+
+        userIds = new Long[USERS];
+        for (int i = 0; i < USERS; i++) {
+            userIds[i] = (long) i;
+            rateLimiter.tryAcquire(userIds[i], System.nanoTime());
+        }
+    }
+
+    /**
+     * An authenticated request; set up on the benchmark thread because the security context is thread-local.
+     */
+    @State(Scope.Thread)
+    public static class AuthenticatedRequest {
+
+        private final MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/cards");
+        private final MockHttpServletResponse response = new MockHttpServletResponse();
+
+        @Setup
+        public void setUp() {
+            var principal = new UserPrincipal(42L, "benchmark-user", Role.USER, false);
+            SecurityContextHolder.getContext().setAuthentication(
+                    new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+        }
+    }
+
+    @Benchmark
+    public long hotKey() {
+        return rateLimiter.tryAcquire(userIds[0], System.nanoTime());
+    }
+
+    @Benchmark
+    public long manyKeys() {
+        return rateLimiter.tryAcquire(userIds[ThreadLocalRandom.current().nextInt(USERS)], System.nanoTime());
+    }
+
+    @Benchmark
+    @Threads(4)
+    public long hotKeyContended() {
+        return rateLimiter.tryAcquire(userIds[0], System.nanoTime());
+    }
+
+    @Benchmark
+    public MockHttpServletResponse filter(AuthenticatedRequest authenticated) throws Exception {
+        rateLimitFilter.doFilter(authenticated.request, authenticated.response, NO_OP_CHAIN);
+        return authenticated.response;
+    }
+}
@@ -0,0 +1,208 @@
+package com.example.bankcards.config;
+
+import com.example.bankcards.entity.enums.Role;
+import com.example.bankcards.security.UserPrincipal;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@DisplayName("Replica Routing Data Source Unit Tests")
+class ReplicaRoutingDataSourceTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private DataSource primary;
+    private DataSource replica;
+    private Connection primaryConnection;
+    private Connection replicaConnection;
+    private ResultSet lagResult;
+    private ReplicaRoutingDataSource routingDataSource;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        primary = mock(DataSource.class);
+        replica = mock(DataSource.class);
+        primaryConnection = mock(Connection.class);
+        replicaConnection = mock(Connection.class);
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        when(replica.getConnection()).thenReturn(replicaConnection);
+
+        Statement lsnStatement = mock(Statement.class);
+        ResultSet lsnResult = mock(ResultSet.class);
+        when(primaryConnection.createStatement()).thenReturn(lsnStatement);
+        when(lsnStatement.executeQuery(anyString())).thenReturn(lsnResult);
+        when(lsnResult.next()).thenReturn(true);
+        when(lsnResult.getString(1)).thenReturn("0/4F9C3FD0");
+
+        PreparedStatement lagStatement = mock(PreparedStatement.class);
+        lagResult = mock(ResultSet.class);
+        when(replicaConnection.prepareStatement(anyString())).thenReturn(lagStatement);
+        when(lagStatement.executeQuery()).thenReturn(lagResult);
+        when(lagResult.next()).thenReturn(true);
+
+        routingDataSource = new ReplicaRoutingDataSource(primary, Map.of("replica-1", replica),
+                Duration.ofSeconds(5), Duration.ofSeconds(10), meterRegistry);
+        routingDataSource.afterPropertiesSet();
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.clear();
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @DisplayName("Should send read-only transactions to a caught-up replica and writes to the primary")
+    void getConnection_ShouldRouteByReadOnlyFlag() throws SQLException {
+        replicaLag(true, 120);
+        routingDataSource.checkReplicaLag();
+
+        beginTransaction(true);
+        assertThat(routingDataSource.getConnection()).isSameAs(replicaConnection);
+        TransactionSynchronizationManager.clear();
+
+        beginTransaction(false);
+        assertThat(routingDataSource.getConnection()).isSameAs(primaryConnection);
+        assertThat(routings("replica-1", "read_only")).isEqualTo(1);
+        assertThat(routings("primary", "read_write")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should keep reads on the primary until the replica has passed a lag check")
+    void getConnection_BeforeFirstLagCheck_ShouldUsePrimary() throws SQLException {
+        beginTransaction(true);
+
+        assertThat(routingDataSource.getConnection()).isSameAs(primaryConnection);
+        assertThat(routings("primary", "no_replica")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should fall back to the primary while the replica lags more than the allowed maximum")
+    void getConnection_WhenReplicaLags_ShouldUsePrimary() throws SQLException {
+        replicaLag(false, 30);
+        routingDataSource.checkReplicaLag();
+
+        beginTransaction(true);
+
+        assertThat(routingDataSource.getConnection()).isSameAs(primaryConnection);
+        assertThat(meterRegistry.get("bank.datasource.replica.lag").gauge().value()).isEqualTo(30);
+    }
+
+    @Test
+    @DisplayName("Should use the replica again once its lag is back within the maximum")
+    void getConnection_WhenReplicaCatchesUp_ShouldUseReplicaAgain() throws SQLException {
+        replicaLag(false, 30);
+        routingDataSource.checkReplicaLag();
+        replicaLag(false, 2);
+        routingDataSource.checkReplicaLag();
+
+        beginTransaction(true);
+
+        assertThat(routingDataSource.getConnection()).isSameAs(replicaConnection);
+    }
+
+    @Test
+    @DisplayName("Should skip a replica that cannot be reached")
+    void getConnection_WhenReplicaUnreachable_ShouldUsePrimary() throws SQLException {
+        replicaLag(true, 0);
+        routingDataSource.checkReplicaLag();
+        when(replica.getConnection()).thenThrow(new SQLException("Connection refused"));
+        routingDataSource.checkReplicaLag();
+
+        beginTransaction(true);
+
+        assertThat(routingDataSource.getConnection()).isSameAs(primaryConnection);
+        assertThat(meterRegistry.get("bank.datasource.replica.lag").gauge().value()).isNaN();
+    }
+
+    @Test
+    @DisplayName("Should read from the primary right after the same user committed a write")
+    void getConnection_AfterOwnWrite_ShouldReadFromPrimary() throws SQLException {
+        replicaLag(true, 0);
+        routingDataSource.checkReplicaLag();
+        authenticate(1L);
+
+        beginTransaction(false);
+        routingDataSource.getConnection();
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        TransactionSynchronizationManager.clear();
+
+        beginTransaction(true);
+        assertThat(routingDataSource.getConnection()).isSameAs(primaryConnection);
+        assertThat(routings("primary", "read_your_writes")).isEqualTo(1);
+
+        authenticate(2L);
+        assertThat(routingDataSource.getConnection()).isSameAs(replicaConnection);
+    }
+
+    @Test
+    @DisplayName("Should not pin a user to the primary when the write rolled back")
+    void getConnection_AfterRolledBackWrite_ShouldReadFromReplica() throws SQLException {
+        replicaLag(true, 0);
+        routingDataSource.checkReplicaLag();
+        authenticate(1L);
+
+        beginTransaction(false);
+        routingDataSource.getConnection();
+        TransactionSynchronizationManager.clear();
+
+        beginTransaction(true);
+        assertThat(routingDataSource.getConnection()).isSameAs(replicaConnection);
+    }
+
+    @Test
+    @DisplayName("Should keep every user's reads on the primary after a change to many users' data")
+    void getConnection_AfterPinAll_ShouldReadFromPrimary() throws SQLException {
+        replicaLag(true, 0);
+        routingDataSource.checkReplicaLag();
+
+        routingDataSource.pinAllToPrimary();
+
+        beginTransaction(true);
+        assertThat(routingDataSource.getConnection()).isSameAs(primaryConnection);
+        authenticate(2L);
+        assertThat(routingDataSource.getConnection()).isSameAs(primaryConnection);
+    }
+
+    private void replicaLag(boolean caughtUp, double secondsSinceLastReplay) throws SQLException {
+        when(lagResult.getBoolean(1)).thenReturn(caughtUp);
+        when(lagResult.getDouble(2)).thenReturn(secondsSinceLastReplay);
+        when(lagResult.wasNull()).thenReturn(false);
+    }
+
+    private static void beginTransaction(boolean readOnly) {
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(readOnly);
+    }
+
+    private static void authenticate(Long userId) {
+        var principal = new UserPrincipal(userId, "user" + userId, Role.USER, false);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+
+    private double routings(String target, String reason) {
+        return meterRegistry.get("bank.datasource.routings").tag("target", target).tag("reason", reason).counter().count();
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.bankcards.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the routing data source, wired as {@link DataSourceConfig} wires it, against two real Postgres instances.
+ * The second instance stands in for a replica: it is not in recovery, so its lag check passes until it stops
+ * accepting connections.
+ */
+@Testcontainers
+@DisplayName("Replica Routing Integration Tests")
+class ReplicaRoutingIntegrationTest {
+
+    private static final String PRIMARY_DATABASE = "card_primary";
+    private static final String REPLICA_DATABASE = "card_replica";
+
+    @Container
+    static final PostgreSQLContainer<?> primaryContainer = new PostgreSQLContainer<>("postgres:latest")
+            .withDatabaseName(PRIMARY_DATABASE);
+
+    @Container
+    static final PostgreSQLContainer<?> replicaContainer = new PostgreSQLContainer<>("postgres:latest")
+            .withDatabaseName(REPLICA_DATABASE);
+
+    private HikariDataSource primaryDataSource;
+    private ReplicaRoutingDataSource routingDataSource;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readOnlyTransaction;
+    private TransactionTemplate readWriteTransaction;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        allowReplicaConnections(true);
+
+        primaryDataSource = new HikariDataSource();
+        primaryDataSource.setJdbcUrl(primaryContainer.getJdbcUrl());
+        primaryDataSource.setUsername(primaryContainer.getUsername());
+        primaryDataSource.setPassword(primaryContainer.getPassword());
+        primaryDataSource.setConnectionTimeout(1000);
+
+        DataSourceConfig config = new DataSourceConfig();
+        routingDataSource = config.replicaRoutingDataSource(primaryDataSource, new SimpleMeterRegistry(),
+                List.of(replicaContainer.getJdbcUrl()), Duration.ofSeconds(5), Duration.ofSeconds(10));
+        routingDataSource.afterPropertiesSet();
+        DataSource dataSource = config.dataSource(routingDataSource);
+
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+        readWriteTransaction = new TransactionTemplate(transactionManager);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException, SQLException {
+        routingDataSource.close();
+        primaryDataSource.close();
+        allowReplicaConnections(true);
+    }
+
+    @Test
+    @DisplayName("Should run read-only transactions on the replica and read-write transactions on the primary")
+    void transactions_ShouldBeRoutedByReadOnlyFlag() {
+        routingDataSource.checkReplicaLag();
+
+        assertThat(currentDatabase(readOnlyTransaction)).isEqualTo(REPLICA_DATABASE);
+        assertThat(currentDatabase(readWriteTransaction)).isEqualTo(PRIMARY_DATABASE);
+    }
+
+    @Test
+    @DisplayName("Should fall back to the primary for reads once the replica fails its lag check")
+    void readOnlyTransaction_WhenLagCheckFails_ShouldUsePrimary() throws SQLException {
+        routingDataSource.checkReplicaLag();
+        assertThat(currentDatabase(readOnlyTransaction)).isEqualTo(REPLICA_DATABASE);
+
+        allowReplicaConnections(false);
+        routingDataSource.checkReplicaLag();
+
+        assertThat(currentDatabase(readOnlyTransaction)).isEqualTo(PRIMARY_DATABASE);
+    }
+
+    private String currentDatabase(TransactionTemplate transaction) {
+        return transaction.execute(status -> jdbcTemplate.queryForObject("SELECT current_database()", String.class));
+    }
+
+    /**
+     * Opens or closes the replica database to new connections and drops the ones it already has, working through
+     * the maintenance database so the change can be undone while the replica refuses connections.
+     */
+    private static void allowReplicaConnections(boolean allowed) throws SQLException {
+        String maintenanceUrl = replicaContainer.getJdbcUrl().replace("/" + REPLICA_DATABASE, "/postgres");
+        try (Connection connection = DriverManager.getConnection(
+                maintenanceUrl, replicaContainer.getUsername(), replicaContainer.getPassword());
+             Statement statement = connection.createStatement()) {
+            statement.execute("ALTER DATABASE " + REPLICA_DATABASE + " ALLOW_CONNECTIONS " + allowed);
+            if (!allowed) {
+                statement.execute("SELECT pg_terminate_backend(pid) FROM pg_stat_activity WHERE datname = '"
+                        + REPLICA_DATABASE + "'");
+            }
+        }
+    }
+}
@@ -98,7 +98,8 @@ class AdminControllerTest extends BaseIntegrationTest {
                     "Test User",
                     request.expiryDate(),
                     CardStatus.ACTIVE,
-                    BigDecimal.ZERO);
+                    BigDecimal.ZERO,
+                    0L);
             when(adminService.createCard(any(AdminCardCreateRequestDto.class))).thenReturn(response);
 
             mockMvc.perform(post("/api/v1/admin/cards")
@@ -108,6 +109,24 @@ class AdminControllerTest extends BaseIntegrationTest {
                     .andExpect(jsonPath("$.id").value(100L));
         }
 
+        @Test
+        @WithMockUser(roles = "ADMIN")
+        void getCardByNumber_AsAdmin_ShouldReturnOk() throws Exception {
+            var response = new CardDto(
+                    100L,
+                    "**** **** **** 4242",
+                    "Test User",
+                    LocalDate.now().plusYears(1),
+                    CardStatus.ACTIVE,
+                    BigDecimal.ZERO,
+                    0L);
+            when(adminService.getCardByNumber("4242424242424242")).thenReturn(response);
+
+            mockMvc.perform(get("/api/v1/admin/cards/by-number").param("cardNumber", "4242424242424242"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.id").value(100L));
+        }
+
         @Test
         @WithMockUser(roles = "ADMIN")
         void deleteCard_AsAdmin_ShouldReturnNoContent() throws Exception {
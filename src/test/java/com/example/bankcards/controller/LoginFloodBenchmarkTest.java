@@ -0,0 +1,193 @@
+package com.example.bankcards.controller;
+
+import com.example.bankcards.BaseIntegrationTest;
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.entity.User;
+import com.example.bankcards.entity.enums.CardStatus;
+import com.example.bankcards.entity.enums.Role;
+import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.repository.UserRepository;
+import com.example.bankcards.security.JwtService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Measures {@code GET /api/v1/cards} latency on its own and again while {@value #LOGIN_CLIENTS} clients send
+ * {@value #LOGINS_PER_SECOND} logins per second, many times what BCrypt can verify, to show that hashing stays
+ * confined to the password hashing pool and excess logins are turned away with 503. Excluded from the default build;
+ * run with {@code mvn test -Pbenchmark -Dtest=LoginFloodBenchmarkTest}.
+ */
+@Tag("benchmark")
+@DisplayName("Login Flood Load Benchmark")
+// the flood comes from one address, and the rate limiter would turn it away before it reaches the hashing pool
+@TestPropertySource(properties = "app.rate-limit.enabled=false")
+class LoginFloodBenchmarkTest extends BaseIntegrationTest {
+
+    private static final int LOGIN_CLIENTS = 200;
+    private static final int LOGINS_PER_SECOND = 400;
+    private static final int CARD_CONCURRENCY = 20;
+    private static final int WARMUP_REQUESTS = 2_000;
+    private static final int MEASURED_REQUESTS = 5_000;
+    private static final String PASSWORD = "flood-password";
+
+    @LocalServerPort
+    private int port;
+    @Autowired
+    private JwtService jwtService;
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+    @Autowired
+    private CardRepository cardRepository;
+    @Autowired
+    private UserRepository userRepository;
+
+    private User owner;
+    private Long cardId;
+
+    @BeforeEach
+    void setUp() {
+        owner = new User();
+        owner.setUsername("flood-" + UUID.randomUUID());
+        owner.setPassword(passwordEncoder.encode(PASSWORD));
+        owner.setOwnerName("Login Flood Benchmark");
+        owner.setRole(Role.USER);
+        owner = userRepository.save(owner);
+
+        Card card = new Card();
+        card.setUser(owner);
+        card.setCardNumber("4000000000000002");
+        card.setExpiryDate(LocalDate.now().plusYears(1));
+        card.setStatus(CardStatus.ACTIVE);
+        card.setBalance(BigDecimal.TEN);
+        cardId = cardRepository.save(card).getId();
+    }
+
+    @AfterEach
+    void tearDown() {
+        cardRepository.deleteById(cardId);
+        userRepository.deleteById(owner.getId());
+    }
+
+    @Test
+    @DisplayName("Should report card listing latency with and without a login flood")
+    void measureCardListingDuringLoginFlood() throws Exception {
+        try (HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+             ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            HttpRequest cards = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/v1/cards"))
+                    .header("Authorization", "Bearer " + jwtService.generateToken(owner))
+                    .timeout(Duration.ofSeconds(60))
+                    .build();
+            HttpRequest login = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/v1/auth/login"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(
+                            "{\"username\":\"" + owner.getUsername() + "\",\"password\":\"" + PASSWORD + "\"}"))
+                    .timeout(Duration.ofSeconds(60))
+                    .build();
+
+            run(client, clients, cards, new long[WARMUP_REQUESTS]);
+            long[] quiet = new long[MEASURED_REQUESTS];
+            assertThat(run(client, clients, cards, quiet)).isZero();
+            report("Cards alone", quiet);
+
+            AtomicBoolean flooding = new AtomicBoolean(true);
+            Map<Integer, LongAdder> loginStatuses = new ConcurrentHashMap<>();
+            long interval = Duration.ofSeconds(LOGIN_CLIENTS).toNanos() / LOGINS_PER_SECOND;
+            for (int i = 0; i < LOGIN_CLIENTS; i++) {
+                clients.execute(() -> {
+                    long next = System.nanoTime();
+                    while (flooding.get()) {
+                        int status;
+                        try {
+                            status = client.send(login, HttpResponse.BodyHandlers.discarding()).statusCode();
+                        } catch (Exception e) {
+                            status = -1;
+                        }
+                        loginStatuses.computeIfAbsent(status, s -> new LongAdder()).increment();
+                        next += interval;
+                        LockSupport.parkNanos(next - System.nanoTime());
+                    }
+                });
+            }
+            long[] flooded = new long[MEASURED_REQUESTS];
+            int failures;
+            try {
+                failures = run(client, clients, cards, flooded);
+            } finally {
+                flooding.set(false);
+            }
+            report("Cards during login flood", flooded);
+            System.out.printf("Login responses by status: %s%n", loginStatuses);
+
+            assertThat(failures).isZero();
+            assertThat(loginStatuses).containsKey(503);
+            assertThat(loginStatuses.keySet()).allMatch(status -> status == 200 || status == 503);
+        }
+    }
+
+    /**
+     * Sends {@code latencies.length} requests with at most {@value #CARD_CONCURRENCY} in flight and returns the
+     * number of requests that did not answer 200.
+     */
+    private static int run(HttpClient client, ExecutorService clients, HttpRequest request, long[] latencies)
+            throws InterruptedException {
+        Semaphore inFlight = new Semaphore(CARD_CONCURRENCY);
+        AtomicInteger failures = new AtomicInteger();
+        for (int i = 0; i < latencies.length; i++) {
+            int index = i;
+            inFlight.acquire();
+            clients.execute(() -> {
+                long sent = System.nanoTime();
+                try {
+                    if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() != 200) {
+                        failures.incrementAndGet();
+                    }
+                } catch (Exception e) {
+                    failures.incrementAndGet();
+                } finally {
+                    latencies[index] = System.nanoTime() - sent;
+                    inFlight.release();
+                }
+            });
+        }
+        inFlight.acquire(CARD_CONCURRENCY);
+        return failures.get();
+    }
+
+    private static void report(String phase, long[] latencies) {
+        Arrays.sort(latencies);
+        System.out.printf("%s: p50 %.2f ms, p99 %.2f ms%n", phase, percentile(latencies, 0.50), percentile(latencies, 0.99));
+    }
+
+    private static double percentile(long[] sortedNanos, double percentile) {
+        int index = (int) Math.ceil(percentile * sortedNanos.length) - 1;
+        return sortedNanos[Math.max(index, 0)] / 1_000_000.0;
+    }
+}
@@ -0,0 +1,176 @@
+package com.example.bankcards.controller;
+
+import com.example.bankcards.BankCardsApplication;
+import com.example.bankcards.BaseIntegrationTest;
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.entity.User;
+import com.example.bankcards.entity.enums.CardStatus;
+import com.example.bankcards.entity.enums.Role;
+import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.repository.UserRepository;
+import com.example.bankcards.security.JwtService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.Environment;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares platform and virtual request threads by starting the application once per mode and driving
+ * {@code GET /api/v1/cards} with {@value #CONCURRENCY} concurrent clients. Excluded from the default build;
+ * run with {@code mvn test -Pbenchmark -Dtest=ServletThreadingBenchmarkTest}.
+ */
+@Tag("benchmark")
+@DisplayName("Servlet Threading Load Benchmark")
+class ServletThreadingBenchmarkTest extends BaseIntegrationTest {
+
+    private static final int CONCURRENCY = 1_000;
+    private static final int WARMUP_REQUESTS = 5_000;
+    private static final int MEASURED_REQUESTS = 30_000;
+    private static final int CARD_COUNT = 10;
+
+    @Autowired
+    private Environment environment;
+    @Autowired
+    private JwtService jwtService;
+    @Autowired
+    private CardRepository cardRepository;
+    @Autowired
+    private UserRepository userRepository;
+
+    private User owner;
+    private final List<Long> cardIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        owner = new User();
+        owner.setUsername("threading-" + UUID.randomUUID());
+        owner.setPassword("password");
+        owner.setOwnerName("Threading Benchmark");
+        owner.setRole(Role.USER);
+        owner = userRepository.save(owner);
+
+        for (int i = 0; i < CARD_COUNT; i++) {
+            Card card = new Card();
+            card.setUser(owner);
+            card.setCardNumber(String.format("4%015d", i));
+            card.setExpiryDate(LocalDate.now().plusYears(1));
+            card.setStatus(CardStatus.ACTIVE);
+            card.setBalance(BigDecimal.TEN);
+            cardIds.add(cardRepository.save(card).getId());
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        cardRepository.deleteAllById(cardIds);
+        userRepository.deleteById(owner.getId());
+    }
+
+    @ParameterizedTest(name = "virtual threads: {0}")
+    @ValueSource(booleans = {false, true})
+    @DisplayName("Should report throughput, latency and thread count per threading mode")
+    void measureCardListing(boolean virtualThreads) throws Exception {
+        String token = jwtService.generateToken(owner);
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+
+        try (ConfigurableApplicationContext application = startApplication(virtualThreads);
+             HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+             ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            int port = ((WebServerApplicationContext) application).getWebServer().getPort();
+            HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/v1/cards?size=" + CARD_COUNT))
+                    .header("Authorization", "Bearer " + token)
+                    .timeout(Duration.ofSeconds(60))
+                    .build();
+
+            run(client, clients, request, new long[WARMUP_REQUESTS]);
+            threads.resetPeakThreadCount();
+
+            long[] latencies = new long[MEASURED_REQUESTS];
+            long start = System.nanoTime();
+            int failures = run(client, clients, request, latencies);
+            double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+
+            Arrays.sort(latencies);
+            System.out.printf("%s threads: %.0f requests/s, p50 %.2f ms, p99 %.2f ms, peak platform threads %d, failures %d%n",
+                    virtualThreads ? "Virtual" : "Platform", MEASURED_REQUESTS / elapsedSeconds,
+                    percentile(latencies, 0.50), percentile(latencies, 0.99), threads.getPeakThreadCount(), failures);
+            assertThat(failures).isZero();
+        }
+    }
+
+    private ConfigurableApplicationContext startApplication(boolean virtualThreads) {
+        // passed as arguments so they take precedence over application.yml
+        return new SpringApplicationBuilder(BankCardsApplication.class).run(
+                "--server.port=0",
+                "--management.server.port=0",
+                "--spring.threads.virtual.enabled=" + virtualThreads,
+                // every request comes from one user, which is what the rate limiter exists to stop
+                "--app.rate-limit.enabled=false",
+                "--spring.datasource.url=" + environment.getProperty("spring.datasource.url"),
+                "--spring.datasource.username=" + environment.getProperty("spring.datasource.username"),
+                "--spring.datasource.password=" + environment.getProperty("spring.datasource.password"),
+                "--spring.liquibase.enabled=false",
+                "--spring.jpa.show-sql=false");
+    }
+
+    /**
+     * Sends {@code latencies.length} requests with at most {@value #CONCURRENCY} in flight and returns the number
+     * of requests that did not answer 200.
+     */
+    private static int run(HttpClient client, ExecutorService clients, HttpRequest request, long[] latencies)
+            throws InterruptedException {
+        Semaphore inFlight = new Semaphore(CONCURRENCY);
+        AtomicInteger failures = new AtomicInteger();
+        for (int i = 0; i < latencies.length; i++) {
+            int index = i;
+            inFlight.acquire();
+            clients.execute(() -> {
+                long sent = System.nanoTime();
+                try {
+                    if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() != 200) {
+                        failures.incrementAndGet();
+                    }
+                } catch (Exception e) {
+                    failures.incrementAndGet();
+                } finally {
+                    latencies[index] = System.nanoTime() - sent;
+                    inFlight.release();
+                }
+            });
+        }
+        inFlight.acquire(CONCURRENCY);
+        return failures.get();
+    }
+
+    private static double percentile(long[] sortedNanos, double percentile) {
+        int index = (int) Math.ceil(percentile * sortedNanos.length) - 1;
+        return sortedNanos[Math.max(index, 0)] / 1_000_000.0;
+    }
+}
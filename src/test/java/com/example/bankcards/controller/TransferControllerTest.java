@@ -2,8 +2,8 @@ package com.example.bankcards.controller;
 
 import com.example.bankcards.BaseIntegrationTest;
 import com.example.bankcards.dto.TransferRequestDto;
-import com.example.bankcards.entity.User;
 import com.example.bankcards.entity.enums.Role;
+import com.example.bankcards.security.UserPrincipal;
 import com.example.bankcards.service.TransferService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.DisplayName;
@@ -23,10 +23,13 @@ import org.springframework.test.web.servlet.MockMvc;
 import java.math.BigDecimal;
 
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.Mockito.doNothing;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @AutoConfigureMockMvc
@@ -39,13 +42,7 @@ class TransferControllerTest extends BaseIntegrationTest {
         @Bean
         @Primary
         public UserDetailsService userDetailsService() {
-            User testUser = new User();
-            testUser.setId(1L);
-            testUser.setUsername("testuser");
-            testUser.setPassword("password");
-            testUser.setRole(Role.USER);
-            testUser.setOwnerName("Test User");
-            testUser.setLocked(false);
+            UserPrincipal testUser = new UserPrincipal(1L, "testuser", Role.USER, false);
 
             return username -> {
                 if (username.equals("testuser")) {
@@ -70,14 +67,31 @@ class TransferControllerTest extends BaseIntegrationTest {
     @DisplayName("Should return OK for a valid transfer request from an authenticated user")
     void performTransfer_AsAuthenticatedUser_ShouldReturnOk() throws Exception {
         var requestDto = new TransferRequestDto(1L, 2L, new BigDecimal("100.00"));
-        doNothing().when(transferService).performTransfer(any(TransferRequestDto.class), any(User.class));
+        when(transferService.performTransfer(any(TransferRequestDto.class), any(UserPrincipal.class), isNull()))
+                .thenReturn(false);
 
         mockMvc.perform(post("/api/v1/transfers")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(requestDto)))
                 .andExpect(status().isOk());
 
-        verify(transferService).performTransfer(any(TransferRequestDto.class), any(User.class));
+        verify(transferService).performTransfer(any(TransferRequestDto.class), any(UserPrincipal.class), isNull());
+    }
+
+    @Test
+    @WithUserDetails("testuser")
+    @DisplayName("Should mark the response of a replayed idempotent transfer")
+    void performTransfer_WithReplayedIdempotencyKey_ShouldReturnReplayHeader() throws Exception {
+        var requestDto = new TransferRequestDto(1L, 2L, new BigDecimal("100.00"));
+        when(transferService.performTransfer(any(TransferRequestDto.class), any(UserPrincipal.class), eq("retry-1")))
+                .thenReturn(true);
+
+        mockMvc.perform(post("/api/v1/transfers")
+                        .header("Idempotency-Key", "retry-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(requestDto)))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Idempotent-Replayed", "true"));
     }
 
     @Test
@@ -90,6 +104,6 @@ class TransferControllerTest extends BaseIntegrationTest {
                         .content(objectMapper.writeValueAsString(requestDto)))
                 .andExpect(status().isForbidden());
 
-        verify(transferService, never()).performTransfer(any(), any());
+        verify(transferService, never()).performTransfer(any(), any(), any());
     }
 }
\ No newline at end of file
@@ -0,0 +1,29 @@
+package com.example.bankcards.security;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("BCrypt Strength Calibrator Unit Tests")
+class BCryptStrengthCalibratorTest {
+
+    @Test
+    @DisplayName("Should pick the highest strength within the target and never go below the minimum")
+    void calibrate_ShouldStayWithinBounds() {
+        assertThat(BCryptStrengthCalibrator.calibrate(Duration.ofMinutes(1), 4, 6)).isEqualTo(6);
+        assertThat(BCryptStrengthCalibrator.calibrate(Duration.ZERO, 5, 12)).isEqualTo(5);
+    }
+
+    @Test
+    @DisplayName("Should reject strengths BCrypt does not support")
+    void calibrate_WithInvalidRange_ShouldThrow() {
+        assertThatThrownBy(() -> BCryptStrengthCalibrator.calibrate(Duration.ofMillis(100), 3, 10))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> BCryptStrengthCalibrator.calibrate(Duration.ofMillis(100), 12, 10))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
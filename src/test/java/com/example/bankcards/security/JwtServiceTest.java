@@ -0,0 +1,101 @@
+package com.example.bankcards.security;
+
+import com.example.bankcards.entity.User;
+import com.example.bankcards.entity.enums.Role;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.security.SignatureException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Base64;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@DisplayName("JWT Service Unit Tests")
+class JwtServiceTest {
+
+    private static final String SECRET =
+            "9dXn1yP0eP7M4uPvvUqhvHqQ5eG3rb6TgTgF3KxQ1nq7wYFf1JgJ4M4n2qE5n6s1v8QyY4a1Lr9b0c2d3e4f5g6h7i8j9k0l";
+
+    private JwtService jwtService;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        jwtService = new JwtService(SECRET, 60_000, 100);
+
+        user = new User();
+        user.setId(7L);
+        user.setUsername("testuser");
+        user.setRole(Role.USER);
+    }
+
+    @Test
+    @DisplayName("Should resolve claims of a freshly issued token")
+    void resolveClaims_WithValidToken_ShouldReturnClaims() {
+        String token = jwtService.generateToken(user);
+
+        Optional<Claims> claims = jwtService.resolveClaims(token);
+
+        assertThat(claims).isPresent();
+        assertThat(claims.get().getSubject()).isEqualTo("testuser");
+        assertThat(claims.get().get("userId", Long.class)).isEqualTo(7L);
+        assertThat(jwtService.isTokenValid(token, user)).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should serve repeated lookups of the same token from the verified-claims cache")
+    void resolveClaims_WithRepeatedToken_ShouldReturnCachedClaims() {
+        String token = jwtService.generateToken(user);
+
+        Claims first = jwtService.resolveClaims(token).orElseThrow();
+        Claims second = jwtService.resolveClaims(token).orElseThrow();
+
+        assertThat(second).isSameAs(first);
+    }
+
+    @Test
+    @DisplayName("Should reject a token with a tampered signature")
+    void resolveClaims_WithTamperedToken_ShouldReturnEmpty() {
+        String tampered = tamper(jwtService.generateToken(user));
+
+        assertThat(jwtService.resolveClaims(tampered)).isEmpty();
+        assertThat(jwtService.isTokenValid(tampered, user)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should reject an expired token")
+    void resolveClaims_WithExpiredToken_ShouldReturnEmpty() {
+        JwtService expiredTokenIssuer = new JwtService(SECRET, -1_000, 100);
+        String token = expiredTokenIssuer.generateToken(Map.of(), user);
+
+        assertThat(jwtService.resolveClaims(token)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should verify an invalid token only once before rejecting it")
+    void extractUsername_WithTamperedToken_ShouldThrowAfterOneVerification() {
+        JwtParser parser = spy((JwtParser) ReflectionTestUtils.getField(jwtService, "jwtParser"));
+        ReflectionTestUtils.setField(jwtService, "jwtParser", parser);
+        String tampered = tamper(jwtService.generateToken(user));
+
+        assertThrows(SignatureException.class, () -> jwtService.extractUsername(tampered));
+        verify(parser, times(1)).parseClaimsJws(tampered);
+    }
+
+    private static String tamper(String token) {
+        int signatureStart = token.lastIndexOf('.') + 1;
+        byte[] signature = Base64.getUrlDecoder().decode(token.substring(signatureStart));
+        signature[signature.length / 2] ^= 1;
+        return token.substring(0, signatureStart) + Base64.getUrlEncoder().withoutPadding().encodeToString(signature);
+    }
+}
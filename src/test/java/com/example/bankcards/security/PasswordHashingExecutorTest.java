@@ -0,0 +1,69 @@
+package com.example.bankcards.security;
+
+import com.example.bankcards.exception.PasswordHashingRejectedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("Password Hashing Executor Unit Tests")
+class PasswordHashingExecutorTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private PasswordHashingExecutor passwordHashingExecutor;
+
+    @BeforeEach
+    void setUp() {
+        passwordHashingExecutor = new PasswordHashingExecutor(1, 1, Duration.ofSeconds(2), meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        passwordHashingExecutor.destroy();
+    }
+
+    @Test
+    @DisplayName("Should run submitted work on the hashing pool")
+    void submit_ShouldCompleteWithTaskResult() throws Exception {
+        CompletableFuture<String> result = passwordHashingExecutor.submit(() -> Thread.currentThread().getName());
+
+        assertThat(result.get(5, TimeUnit.SECONDS)).startsWith("password-hashing-");
+    }
+
+    @Test
+    @DisplayName("Should reject work beyond the busy threads and the queue instead of waiting")
+    void submit_WhenSaturated_ShouldRejectWithRetryAfter() throws Exception {
+        CompletableFuture<Boolean> running = passwordHashingExecutor.submit(this::awaitRelease);
+        CompletableFuture<Boolean> queued = passwordHashingExecutor.submit(this::awaitRelease);
+
+        assertThatThrownBy(() -> passwordHashingExecutor.submit(this::awaitRelease))
+                .isInstanceOf(PasswordHashingRejectedException.class)
+                .extracting("retryAfter").isEqualTo(Duration.ofSeconds(2));
+        assertThat(meterRegistry.get("bank.auth.password.hashing.rejected").counter().count()).isEqualTo(1);
+
+        release.countDown();
+        assertThat(running.get(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(queued.get(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    private boolean awaitRelease() {
+        try {
+            return release.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.bankcards.security;
+
+import com.example.bankcards.entity.enums.Role;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@DisplayName("Rate Limit Filter Unit Tests")
+class RateLimitFilterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final FilterChain filterChain = mock(FilterChain.class);
+    private final RateLimitFilter rateLimitFilter = new RateLimitFilter(true, Duration.ofMinutes(10), 100,
+            1, 0.001, 2, 0.001, 100, 50, meterRegistry);
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @DisplayName("Should answer 429 with Retry-After once a user exceeds the transfer limit")
+    void doFilter_WhenUserExceedsLimit_ShouldRejectWithRetryAfter() throws Exception {
+        var principal = new UserPrincipal(1L, "testuser", Role.USER, false);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+
+        filter("/api/v1/transfers");
+        filter("/api/v1/transfers");
+        MockHttpServletResponse rejected = filter("/api/v1/transfers");
+
+        assertThat(rejected.getStatus()).isEqualTo(429);
+        assertThat(Long.parseLong(rejected.getHeader("Retry-After"))).isPositive();
+        assertThat(rejected.getContentAsString()).contains("Too many requests");
+        assertThat(filter("/api/v1/cards").getStatus()).as("other groups have their own buckets").isEqualTo(200);
+        verify(filterChain, times(3)).doFilter(any(), any());
+        assertThat(meterRegistry.get("bank.rate.limit.rejected").tag("group", "transfers").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should limit anonymous logins by client address")
+    void doFilter_WhenAnonymous_ShouldKeyByAddress() throws Exception {
+        filter("/api/v1/auth/login");
+
+        assertThat(filter("/api/v1/auth/login").getStatus()).isEqualTo(429);
+        MockHttpServletRequest otherClient = new MockHttpServletRequest("POST", "/api/v1/auth/login");
+        otherClient.setRemoteAddr("10.0.0.2");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        rateLimitFilter.doFilter(otherClient, response, filterChain);
+        assertThat(response.getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    @DisplayName("Should leave requests outside the API alone")
+    void doFilter_OutsideApi_ShouldNotLimit() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            filter("/swagger-ui/index.html");
+        }
+
+        verify(filterChain, times(5)).doFilter(any(), any());
+    }
+
+    private MockHttpServletResponse filter(String path) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", path);
+        request.setRemoteAddr("10.0.0.1");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        rateLimitFilter.doFilter(request, response, filterChain);
+        return response;
+    }
+}
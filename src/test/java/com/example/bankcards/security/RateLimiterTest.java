@@ -0,0 +1,54 @@
+package com.example.bankcards.security;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("Rate Limiter Unit Tests")
+class RateLimiterTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final RateLimiter rateLimiter = new RateLimiter("test", 3, 2, Duration.ofMinutes(1), 100);
+
+    @Test
+    @DisplayName("Should allow a burst up to the capacity and then report the wait for the next token")
+    void tryAcquire_WhenBurstExhausted_ShouldReturnWait() {
+        long now = 0;
+        for (int i = 0; i < 3; i++) {
+            assertThat(rateLimiter.tryAcquire(1L, now)).isZero();
+        }
+
+        assertThat(rateLimiter.tryAcquire(1L, now)).isEqualTo(SECOND / 2);
+        assertThat(rateLimiter.tryAcquire(2L, now)).as("other keys have their own bucket").isZero();
+    }
+
+    @Test
+    @DisplayName("Should refill at the configured rate without exceeding the capacity")
+    void tryAcquire_AfterIdle_ShouldRefill() {
+        for (int i = 0; i < 3; i++) {
+            rateLimiter.tryAcquire(1L, 0);
+        }
+
+        assertThat(rateLimiter.tryAcquire(1L, SECOND / 2)).isZero();
+        assertThat(rateLimiter.tryAcquire(1L, SECOND / 2)).isPositive();
+
+        long muchLater = 60 * SECOND;
+        for (int i = 0; i < 3; i++) {
+            assertThat(rateLimiter.tryAcquire(1L, muchLater)).isZero();
+        }
+        assertThat(rateLimiter.tryAcquire(1L, muchLater)).isPositive();
+    }
+
+    @Test
+    @DisplayName("Should reject limits that would never admit a request")
+    void constructor_WithInvalidLimit_ShouldThrow() {
+        assertThatThrownBy(() -> new RateLimiter("test", 0, 1, Duration.ofMinutes(1), 100))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.bankcards.security;
+
+import com.example.bankcards.entity.enums.Role;
+import com.example.bankcards.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("User Principal Cache Unit Tests")
+class UserPrincipalCacheTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    private UserPrincipalCache userPrincipalCache;
+
+    @BeforeEach
+    void setUp() {
+        userPrincipalCache = new UserPrincipalCache(userRepository, Duration.ofMinutes(1), 100, false, Runnable::run);
+    }
+
+    @Test
+    @DisplayName("Should query the users table only once for repeated lookups")
+    void get_WhenCalledRepeatedly_ShouldLoadOnce() {
+        var principal = new UserPrincipal(1L, "testuser", Role.USER, false);
+        when(userRepository.findPrincipalById(1L)).thenReturn(Optional.of(principal));
+
+        userPrincipalCache.get(1L);
+        Optional<UserPrincipal> cached = userPrincipalCache.get(1L);
+
+        assertThat(cached).contains(principal);
+        verify(userRepository, times(1)).findPrincipalById(1L);
+    }
+
+    @Test
+    @DisplayName("Should reload the principal after eviction")
+    void evict_ShouldForceReload() {
+        var before = new UserPrincipal(1L, "testuser", Role.USER, false);
+        var after = new UserPrincipal(1L, "testuser", Role.ADMIN, false);
+        when(userRepository.findPrincipalById(1L)).thenReturn(Optional.of(before), Optional.of(after));
+
+        userPrincipalCache.get(1L);
+        userPrincipalCache.evict(1L);
+
+        assertThat(userPrincipalCache.get(1L)).contains(after);
+        verify(userRepository, times(2)).findPrincipalById(1L);
+    }
+
+    @Test
+    @DisplayName("Should load misses on the task executor when virtual threads are enabled")
+    void get_WithVirtualThreads_ShouldLoadOnTaskExecutor() {
+        var principal = new UserPrincipal(1L, "testuser", Role.USER, false);
+        AtomicBoolean inExecutor = new AtomicBoolean();
+        AtomicBoolean loadedInExecutor = new AtomicBoolean();
+        when(userRepository.findPrincipalById(1L)).thenAnswer(invocation -> {
+            loadedInExecutor.set(inExecutor.get());
+            return Optional.of(principal);
+        });
+        var cache = new UserPrincipalCache(userRepository, Duration.ofMinutes(1), 100, true, task -> {
+            inExecutor.set(true);
+            try {
+                task.run();
+            } finally {
+                inExecutor.set(false);
+            }
+        });
+
+        assertThat(cache.get(1L)).contains(principal);
+        assertThat(cache.get(1L)).contains(principal);
+        assertThat(loadedInExecutor).isTrue();
+        verify(userRepository, times(1)).findPrincipalById(1L);
+    }
+}
@@ -1,12 +1,22 @@
 package com.example.bankcards.service;
 
 import com.example.bankcards.dto.AdminCardCreateRequestDto;
+import com.example.bankcards.dto.CardDto;
+import com.example.bankcards.dto.CardSummary;
+import com.example.bankcards.dto.CursorPage;
+import com.example.bankcards.dto.UserDto;
 import com.example.bankcards.entity.Card;
 import com.example.bankcards.entity.User;
+import com.example.bankcards.entity.enums.AuditAction;
+import com.example.bankcards.entity.enums.CardStatus;
 import com.example.bankcards.entity.enums.Role;
 import com.example.bankcards.exception.CardOperationException;
+import com.example.bankcards.exception.PreconditionFailedException;
 import com.example.bankcards.repository.CardRepository;
 import com.example.bankcards.repository.UserRepository;
+import com.example.bankcards.security.UserPrincipalCache;
+import com.example.bankcards.util.CardNumberHasher;
+import com.example.bankcards.util.PageCursor;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -14,14 +24,17 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -37,6 +50,17 @@ class AdminServiceTest {
     private UserRepository userRepository;
     @Mock
     private CardService cardService;
+    @Mock
+    private UserPrincipalCache userPrincipalCache;
+    @Mock
+    private CardNumberHasher cardNumberHasher;
+    @Mock
+    private CardBalanceShardService cardBalanceShardService;
+    @Mock
+    private CardPageCache cardPageCache;
+
+    @Mock
+    private AuditTrail auditTrail;
 
     @InjectMocks
     private AdminService adminService;
@@ -56,6 +80,55 @@ class AdminServiceTest {
 
         verify(cardRepository, times(1)).save(any(Card.class));
         verify(userRepository, times(1)).findById(userId);
+        verify(cardPageCache).invalidate(userId);
+    }
+
+    @Test
+    @DisplayName("Should store the last four digits and length of the new card number")
+    void createCard_ShouldStoreCardNumberSuffix() {
+        long userId = 1L;
+        var request = new AdminCardCreateRequestDto(userId, "4242424242424242", LocalDate.now().plusYears(2), BigDecimal.ZERO);
+        var user = new User();
+        user.setId(userId);
+
+        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        when(cardRepository.save(any(Card.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        adminService.createCard(request);
+
+        ArgumentCaptor<Card> cardCaptor = ArgumentCaptor.forClass(Card.class);
+        verify(cardRepository).save(cardCaptor.capture());
+        assertThat(cardCaptor.getValue().getCardNumberLast4()).isEqualTo("4242");
+        assertThat(cardCaptor.getValue().getCardNumberLength()).isEqualTo(16);
+    }
+
+    @Test
+    @DisplayName("Should reject a card number that already exists according to the blind index")
+    void createCard_WhenCardNumberExists_ShouldThrowException() {
+        long userId = 1L;
+        var request = new AdminCardCreateRequestDto(userId, "4242424242424242", LocalDate.now().plusYears(2), BigDecimal.ZERO);
+        var user = new User();
+        user.setId(userId);
+
+        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        when(cardNumberHasher.hash(request.cardNumber())).thenReturn("hash");
+        when(cardRepository.existsByCardNumberHash("hash")).thenReturn(true);
+
+        var exception = assertThrows(CardOperationException.class, () -> adminService.createCard(request));
+        assertThat(exception.getMessage()).isEqualTo("A card with this number already exists.");
+        verify(cardRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Should find a card by number through its blind index")
+    void getCardByNumber_WhenIndexMatches_ShouldReturnCard() {
+        var summary = new CardSummary(5L, "4242", 16, "Test User", LocalDate.now().plusYears(1), CardStatus.ACTIVE, BigDecimal.TEN, 0L);
+        var dto = new CardDto(5L, "**** **** **** 4242", "Test User", summary.expiryDate(), CardStatus.ACTIVE, BigDecimal.TEN, 0L);
+        when(cardNumberHasher.hash("4242424242424242")).thenReturn("hash");
+        when(cardRepository.findSummaryByCardNumberHash("hash")).thenReturn(Optional.of(summary));
+        when(cardService.mapToCardDto(summary)).thenReturn(dto);
+
+        assertThat(adminService.getCardByNumber("4242424242424242")).isEqualTo(dto);
     }
 
     @Test
@@ -70,6 +143,79 @@ class AdminServiceTest {
         verify(cardRepository, never()).save(any());
     }
 
+    @Test
+    @DisplayName("Should update the status at the expected version and answer with the shard-inclusive balance")
+    void updateCardStatus_WhenVersionMatches_ShouldUpdateAndReturnSummaryBalance() {
+        Card card = versionedCard(4L);
+        when(cardRepository.findWithUserById(card.getId())).thenReturn(Optional.of(card));
+        when(cardRepository.saveAndFlush(card)).thenReturn(card);
+        var summary = new CardSummary(card.getId(), "1234", 16, "Owner", null, CardStatus.BLOCKED,
+                new BigDecimal("150.00"), 5L);
+        var dto = new CardDto(card.getId(), "**** **** **** 1234", "Owner", null, CardStatus.BLOCKED,
+                new BigDecimal("150.00"), 5L);
+        when(cardRepository.findSummaryById(card.getId())).thenReturn(Optional.of(summary));
+        when(cardService.mapToCardDto(summary)).thenReturn(dto);
+
+        CardDto result = adminService.updateCardStatus(card.getId(), CardStatus.BLOCKED, 4L);
+
+        assertThat(result).isSameAs(dto);
+        assertThat(card.getStatus()).isEqualTo(CardStatus.BLOCKED);
+        verify(cardRepository).saveAndFlush(card);
+        verify(cardPageCache).invalidate(card.getUser().getId());
+        verify(auditTrail).record(AuditAction.CARD_STATUS_CHANGED, card.getId(), "ACTIVE -> BLOCKED");
+    }
+
+    @Test
+    @DisplayName("Should refuse to update the status of a card changed since the expected version")
+    void updateCardStatus_WhenVersionDiffers_ShouldThrowPreconditionFailed() {
+        Card card = versionedCard(5L);
+        when(cardRepository.findWithUserById(card.getId())).thenReturn(Optional.of(card));
+
+        assertThrows(PreconditionFailedException.class,
+                () -> adminService.updateCardStatus(card.getId(), CardStatus.BLOCKED, 4L));
+        assertThat(card.getStatus()).isEqualTo(CardStatus.ACTIVE);
+        verify(cardRepository, never()).saveAndFlush(any());
+        verify(auditTrail, never()).record(any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Should lock the card before changing its balance shards")
+    void updateCardBalanceShards_WhenCardExists_ShouldReshardLockedCard() {
+        var owner = new User();
+        owner.setId(3L);
+        var card = new Card();
+        card.setId(5L);
+        card.setUser(owner);
+        when(cardRepository.findAllByIdForUpdate(List.of(5L))).thenReturn(List.of(card));
+
+        adminService.updateCardBalanceShards(5L, 8);
+
+        verify(cardBalanceShardService).reshard(card, 8);
+        verify(cardService).mapToCardDto(card);
+        verify(cardPageCache).invalidate(3L);
+    }
+
+    @Test
+    @DisplayName("Should delete the card and invalidate its owner's cached card pages")
+    void deleteCard_WhenCardExists_ShouldDeleteAndInvalidateOwnerPages() {
+        when(cardRepository.findUserIdById(5L)).thenReturn(Optional.of(3L));
+
+        adminService.deleteCard(5L);
+
+        verify(cardRepository).deleteById(5L);
+        verify(cardPageCache).invalidate(3L);
+    }
+
+    @Test
+    @DisplayName("Should throw exception when sharding a non-existent card")
+    void updateCardBalanceShards_WhenCardDoesNotExist_ShouldThrowException() {
+        when(cardRepository.findAllByIdForUpdate(List.of(5L))).thenReturn(List.of());
+
+        var exception = assertThrows(CardOperationException.class, () -> adminService.updateCardBalanceShards(5L, 8));
+        assertThat(exception.getMessage()).isEqualTo("Card not found with id: 5");
+        verify(cardBalanceShardService, never()).reshard(any(), anyInt());
+    }
+
     @Test
     @DisplayName("Should update user role successfully")
     void updateUserRole_ShouldChangeUserRole() {
@@ -88,5 +234,80 @@ class AdminServiceTest {
         User savedUser = userCaptor.getValue();
 
         assertThat(savedUser.getRole()).isEqualTo(Role.ADMIN);
+        verify(userPrincipalCache).evict(userId);
+        verify(auditTrail).record(AuditAction.USER_ROLE_CHANGED, userId, "USER -> ADMIN");
+    }
+
+    @Test
+    @DisplayName("Should lock user and evict the cached principal")
+    void updateUserLockStatus_ShouldLockUserAndEvictPrincipal() {
+        long userId = 1L;
+        User user = new User();
+        user.setId(userId);
+        user.setRole(Role.USER);
+
+        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+
+        adminService.updateUserLockStatus(userId, true);
+
+        assertThat(user.isLocked()).isTrue();
+        verify(userRepository).save(user);
+        verify(userPrincipalCache).evict(userId);
+        verify(auditTrail).record(AuditAction.USER_LOCKED, userId, null);
+    }
+
+    @Test
+    @DisplayName("Should return a cursor page with a next cursor when more rows exist")
+    void getCardsAfter_WhenMoreRowsExist_ShouldReturnNextCursor() {
+        CardSummary first = new CardSummary(11L, "1111", 16, "Owner", LocalDate.now().plusYears(1), CardStatus.BLOCKED, BigDecimal.ONE, 0L);
+        CardSummary second = new CardSummary(12L, "2222", 16, "Owner", LocalDate.now().plusYears(1), CardStatus.BLOCKED, BigDecimal.ONE, 0L);
+        CardSummary extra = new CardSummary(15L, "3333", 16, "Owner", LocalDate.now().plusYears(1), CardStatus.BLOCKED, BigDecimal.ONE, 0L);
+        when(cardRepository.findSummariesByUserIdAndStatusAfter(7L, CardStatus.BLOCKED, 10L, Limit.of(3)))
+                .thenReturn(List.of(first, second, extra));
+        when(cardService.mapToCardDto(any(CardSummary.class))).thenAnswer(invocation -> {
+            CardSummary summary = invocation.getArgument(0);
+            return new CardDto(summary.id(), "masked", summary.ownerName(), summary.expiryDate(), summary.status(), summary.balance(), summary.version());
+        });
+
+        CursorPage<CardDto> page = adminService.getCardsAfter(PageCursor.encode(10L), 2, CardStatus.BLOCKED, 7L);
+
+        assertThat(page.items()).extracting(CardDto::id).containsExactly(11L, 12L);
+        assertThat(PageCursor.decode(page.nextCursor())).isEqualTo(12L);
+    }
+
+    @Test
+    @DisplayName("Should return no next cursor on the last user page")
+    void getUsersAfter_OnLastPage_ShouldReturnNullCursor() {
+        var user = new UserDto(3L, "last", "Last User", Role.USER);
+        when(userRepository.findUsersAfter(0L, Limit.of(51))).thenReturn(List.of(user));
+
+        CursorPage<UserDto> page = adminService.getUsersAfter(null, 50);
+
+        assertThat(page.items()).containsExactly(user);
+        assertThat(page.nextCursor()).isNull();
+    }
+
+    @Test
+    @DisplayName("Should reject a malformed cursor and an out-of-range limit")
+    void getCardsAfter_WithInvalidArguments_ShouldThrowException() {
+        var badCursor = assertThrows(CardOperationException.class,
+                () -> adminService.getCardsAfter("not-a-cursor", 10, null, null));
+        var badLimit = assertThrows(CardOperationException.class,
+                () -> adminService.getCardsAfter(null, 501, null, null));
+
+        assertThat(badCursor.getMessage()).isEqualTo("Invalid pagination cursor.");
+        assertThat(badLimit.getMessage()).isEqualTo("Limit must be between 1 and 500.");
+        verify(cardRepository, never()).findSummariesAfter(any(Long.class), any());
+    }
+
+    private static Card versionedCard(long version) {
+        var owner = new User();
+        owner.setId(3L);
+        var card = new Card();
+        card.setId(7L);
+        card.setUser(owner);
+        card.setStatus(CardStatus.ACTIVE);
+        card.setVersion(version);
+        return card;
     }
 }
@@ -0,0 +1,190 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.entity.enums.AuditAction;
+import com.example.bankcards.entity.enums.Role;
+import com.example.bankcards.repository.AuditEventRepository;
+import com.example.bankcards.repository.AuditEventRepository.AuditEvent;
+import com.example.bankcards.security.UserPrincipal;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+@DisplayName("Audit Trail Unit Tests")
+class AuditTrailTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AuditEventRepository auditEventRepository = mock(AuditEventRepository.class);
+    private final List<List<AuditEvent>> batches = new CopyOnWriteArrayList<>();
+
+    private AuditTrail auditTrail;
+
+    @AfterEach
+    void tearDown() throws Exception {
+        TransactionSynchronizationManager.clear();
+        SecurityContextHolder.clearContext();
+        auditTrail.destroy();
+    }
+
+    @Test
+    @DisplayName("Should write the events of a committed transaction with the acting user and drop those of a rolled-back one")
+    void record_ShouldOnlyWriteCommittedEvents() throws Exception {
+        recordBatches();
+        auditTrail = auditTrail(100, 10);
+        var admin = new UserPrincipal(7L, "admin", Role.ADMIN, false);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(admin, null, admin.getAuthorities()));
+
+        inTransaction(TransactionSynchronization.STATUS_COMMITTED, () -> {
+            auditTrail.record(AuditAction.CARD_CREATED, 1L, "first");
+            auditTrail.record(AuditAction.CARD_DELETED, 2L, "second");
+            assertThat(meterRegistry.get("bank.audit.queue.size").gauge().value()).isZero();
+        });
+        inTransaction(TransactionSynchronization.STATUS_ROLLED_BACK,
+                () -> auditTrail.record(AuditAction.CARD_DELETED, 3L, "rolled back"));
+        auditTrail.destroy();
+
+        List<AuditEvent> written = batches.stream().flatMap(List::stream).toList();
+        assertThat(written).extracting(AuditEvent::targetId).containsExactly(1L, 2L);
+        assertThat(written).allSatisfy(event -> {
+            assertThat(event.actorId()).isEqualTo(7L);
+            assertThat(event.actorUsername()).isEqualTo("admin");
+        });
+        assertThat(meterRegistry.get("bank.audit.events.written").counter().count()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should write queued events in batches no larger than the configured size")
+    void record_ShouldBatchQueuedEvents() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            batches.add(List.copyOf(invocation.getArgument(0)));
+            return null;
+        }).when(auditEventRepository).insertAll(anyList());
+        auditTrail = auditTrail(100, 3);
+
+        for (long i = 0; i < 7; i++) {
+            auditTrail.record(AuditAction.TRANSFER, i, null);
+        }
+        release.countDown();
+        auditTrail.destroy();
+
+        assertThat(batches).allSatisfy(batch -> assertThat(batch).hasSizeLessThanOrEqualTo(3));
+        assertThat(batches.stream().flatMap(List::stream).map(AuditEvent::targetId))
+                .containsExactly(0L, 1L, 2L, 3L, 4L, 5L, 6L);
+        assertThat(batches.size()).isLessThan(7);
+    }
+
+    @Test
+    @DisplayName("Should retry a failed insert and drop events only when the buffer stays full")
+    void record_WhenWriterFallsBehind_ShouldRetryAndDropOverflow() throws Exception {
+        CountDownLatch failing = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            if (failing.getCount() > 0) {
+                failing.countDown();
+                throw new IllegalStateException("database unavailable");
+            }
+            batches.add(List.copyOf(invocation.getArgument(0)));
+            return null;
+        }).when(auditEventRepository).insertAll(anyList());
+        auditTrail = auditTrail(1, 10);
+
+        auditTrail.record(AuditAction.TRANSFER, 1L, null);
+        assertThat(failing.await(5, TimeUnit.SECONDS)).isTrue();
+        auditTrail.record(AuditAction.TRANSFER, 2L, null);
+        auditTrail.record(AuditAction.TRANSFER, 3L, null);
+        auditTrail.destroy();
+
+        assertThat(batches.stream().flatMap(List::stream).map(AuditEvent::targetId)).containsExactly(1L, 2L);
+        assertThat(meterRegistry.get("bank.audit.events.dropped").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should skip only the events the database rejects and keep writing the rest")
+    void record_WhenEventIsRejected_ShouldSkipItAndWriteTheRest() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            List<AuditEvent> batch = List.copyOf(invocation.getArgument(0));
+            release.await(5, TimeUnit.SECONDS);
+            if (batch.stream().anyMatch(event -> event.targetId() == 2L)) {
+                throw new DataIntegrityViolationException("value too long");
+            }
+            batches.add(batch);
+            return null;
+        }).when(auditEventRepository).insertAll(anyList());
+        auditTrail = auditTrail(100, 10);
+
+        for (long i = 1; i <= 4; i++) {
+            auditTrail.record(AuditAction.TRANSFER, i, null);
+        }
+        release.countDown();
+        auditTrail.destroy();
+
+        assertThat(batches.stream().flatMap(List::stream).map(AuditEvent::targetId)).containsExactly(1L, 3L, 4L);
+        assertThat(meterRegistry.get("bank.audit.events.dropped").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should drop a batch that keeps failing after the last attempt instead of stalling the writer")
+    void record_WhenBatchKeepsFailing_ShouldDropItAfterMaxAttempts() throws Exception {
+        AtomicInteger attempts = new AtomicInteger();
+        CountDownLatch nextWritten = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            List<AuditEvent> batch = List.copyOf(invocation.getArgument(0));
+            if (batch.get(0).targetId() == 1L) {
+                attempts.incrementAndGet();
+                throw new QueryTimeoutException("statement timeout");
+            }
+            batches.add(batch);
+            nextWritten.countDown();
+            return null;
+        }).when(auditEventRepository).insertAll(anyList());
+        auditTrail = auditTrail(100, 1);
+
+        auditTrail.record(AuditAction.TRANSFER, 1L, null);
+        auditTrail.record(AuditAction.TRANSFER, 2L, null);
+        assertThat(nextWritten.await(5, TimeUnit.SECONDS)).isTrue();
+        auditTrail.destroy();
+
+        assertThat(attempts).hasValue(3);
+        assertThat(batches.stream().flatMap(List::stream).map(AuditEvent::targetId)).containsExactly(2L);
+        assertThat(meterRegistry.get("bank.audit.events.dropped").counter().count()).isEqualTo(1);
+    }
+
+    private AuditTrail auditTrail(int queueCapacity, int maxBatchSize) {
+        return new AuditTrail(auditEventRepository, meterRegistry, queueCapacity, maxBatchSize,
+                Duration.ofMillis(10), Duration.ofMillis(200), 3, Duration.ofSeconds(5));
+    }
+
+    private void recordBatches() {
+        doAnswer(invocation -> batches.add(List.copyOf(invocation.getArgument(0))))
+                .when(auditEventRepository).insertAll(anyList());
+    }
+
+    private static void inTransaction(int outcome, Runnable work) {
+        TransactionSynchronizationManager.initSynchronization();
+        work.run();
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(outcome));
+    }
+}
@@ -7,12 +7,15 @@ import com.example.bankcards.entity.User;
 import com.example.bankcards.entity.enums.Role;
 import com.example.bankcards.repository.UserRepository;
 import com.example.bankcards.security.JwtService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
@@ -38,6 +41,8 @@ class AuthServiceTest {
     private JwtService jwtService;
     @Mock
     private AuthenticationManager authenticationManager;
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
 
     @InjectMocks
     private AuthService authService;
@@ -79,6 +84,8 @@ class AuthServiceTest {
 
         verify(authenticationManager).authenticate(any());
         assertThat(response.token()).isEqualTo(dummyToken);
+        assertThat(meterRegistry.get("bank.auth.authentications").tag("outcome", "success").timer().count())
+                .isEqualTo(1);
     }
 
     @Test
@@ -88,5 +95,7 @@ class AuthServiceTest {
         when(authenticationManager.authenticate(any())).thenThrow(new BadCredentialsException("Bad credentials"));
 
         assertThrows(BadCredentialsException.class, () -> authService.authenticate(request));
+        assertThat(meterRegistry.get("bank.auth.authentications").tag("outcome", "failure").timer().count())
+                .isEqualTo(1);
     }
 }
\ No newline at end of file
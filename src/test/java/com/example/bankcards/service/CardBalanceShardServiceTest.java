@@ -0,0 +1,138 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.repository.CardBalanceShardRepository;
+import com.example.bankcards.repository.CardRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Card Balance Shard Service Unit Tests")
+class CardBalanceShardServiceTest {
+
+    @Mock
+    private CardRepository cardRepository;
+    @Mock
+    private CardBalanceShardRepository shardRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private CardBalanceShardService cardBalanceShardService;
+    private Card card;
+
+    @BeforeEach
+    void setUp() {
+        cardBalanceShardService = new CardBalanceShardService(cardRepository, shardRepository,
+                new TransactionTemplate(transactionManager), new SimpleMeterRegistry());
+        card = new Card();
+        card.setId(7L);
+        card.setBalance(new BigDecimal("100.00"));
+        card.setBalanceShards(4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.clear();
+    }
+
+    @Test
+    @DisplayName("Should credit only shards that exist for the card")
+    void credit_ShouldPickShardWithinShardCount() {
+        for (int i = 0; i < 200; i++) {
+            cardBalanceShardService.credit(card, BigDecimal.ONE);
+        }
+
+        ArgumentCaptor<Integer> shards = ArgumentCaptor.forClass(Integer.class);
+        verify(shardRepository, times(200)).credit(eq(7L), shards.capture(), eq(BigDecimal.ONE));
+        assertThat(shards.getAllValues()).allMatch(shard -> shard >= 0 && shard < 4);
+        assertThat(shards.getAllValues()).containsAll(List.of(0, 1, 2, 3));
+    }
+
+    @Test
+    @DisplayName("Should add the folded shard balances to the card")
+    void foldInto_ShouldAddShardBalances() {
+        when(shardRepository.fold(7L)).thenReturn(new BigDecimal("25.50"));
+
+        cardBalanceShardService.foldInto(card);
+
+        assertThat(card.getBalance()).isEqualByComparingTo("125.50");
+    }
+
+    @Test
+    @DisplayName("Should fold pending shard balances before turning sharding off and refresh after commit")
+    void reshard_ToZero_ShouldFoldFirstAndSkipShardCreation() {
+        TransactionSynchronizationManager.initSynchronization();
+        when(shardRepository.fold(7L)).thenReturn(new BigDecimal("10.00"));
+        when(cardRepository.findShardedCardIds()).thenReturn(List.of());
+
+        cardBalanceShardService.reshard(card, 0);
+
+        InOrder order = inOrder(shardRepository, cardRepository);
+        order.verify(shardRepository).fold(7L);
+        order.verify(cardRepository).updateBalanceShards(7L, 0);
+        order.verify(shardRepository).deleteEmptyShards(7L);
+        verify(shardRepository, never()).createShards(eq(7L), anyInt());
+        assertThat(card.getBalance()).isEqualByComparingTo("110.00");
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        verify(cardRepository).findShardedCardIds();
+    }
+
+    @Test
+    @DisplayName("Should create the shard rows and route credits once the sharded card ids are refreshed")
+    void reshard_ShouldCreateShardRows() {
+        TransactionSynchronizationManager.initSynchronization();
+        when(shardRepository.fold(7L)).thenReturn(BigDecimal.ZERO);
+        when(cardRepository.findShardedCardIds()).thenReturn(List.of(7L));
+
+        cardBalanceShardService.reshard(card, 8);
+        assertThat(cardBalanceShardService.isSharded(7L)).isFalse();
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+        verify(shardRepository).createShards(7L, 8);
+        assertThat(cardBalanceShardService.isSharded(7L)).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should fold every card holding a shard balance under its row lock")
+    void compact_ShouldFoldEachCard() {
+        Card other = new Card();
+        other.setId(9L);
+        other.setBalance(BigDecimal.ZERO);
+        when(shardRepository.findCardIdsWithShardBalance()).thenReturn(List.of(7L, 9L));
+        when(cardRepository.findAllByIdForUpdate(List.of(7L))).thenReturn(List.of(card));
+        when(cardRepository.findAllByIdForUpdate(List.of(9L))).thenReturn(List.of(other));
+        when(shardRepository.fold(7L)).thenReturn(new BigDecimal("1.00"));
+        when(shardRepository.fold(9L)).thenReturn(new BigDecimal("2.00"));
+
+        int compacted = cardBalanceShardService.compact();
+
+        assertThat(compacted).isEqualTo(2);
+        assertThat(card.getBalance()).isEqualByComparingTo("101.00");
+        assertThat(other.getBalance()).isEqualByComparingTo("2.00");
+    }
+}
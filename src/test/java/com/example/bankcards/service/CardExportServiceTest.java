@@ -0,0 +1,87 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.dto.CardDto;
+import com.example.bankcards.dto.CardExportFormat;
+import com.example.bankcards.dto.CardSummary;
+import com.example.bankcards.entity.enums.CardStatus;
+import com.example.bankcards.repository.CardRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Card Export Service Unit Tests")
+class CardExportServiceTest {
+
+    @Mock
+    private CardRepository cardRepository;
+    @Mock
+    private CardService cardService;
+
+    private CardExportService cardExportService;
+    private final AtomicBoolean streamClosed = new AtomicBoolean();
+
+    @BeforeEach
+    void setUp() {
+        ObjectMapper objectMapper = new ObjectMapper()
+                .findAndRegisterModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        cardExportService = new CardExportService(cardRepository, cardService, objectMapper);
+
+        LocalDate expiry = LocalDate.of(2030, 1, 31);
+        when(cardRepository.streamAllSummaries()).thenReturn(Stream.of(
+                new CardSummary(1L, "4242", 16, "Alice", expiry, CardStatus.ACTIVE, new BigDecimal("10.50"), 0L),
+                new CardSummary(2L, "1111", 16, "Smith, \"Bob\"", expiry, CardStatus.BLOCKED, BigDecimal.ZERO, 3L)
+        ).onClose(() -> streamClosed.set(true)));
+        when(cardService.mapToCardDto(any(CardSummary.class))).thenAnswer(invocation -> {
+            CardSummary card = invocation.getArgument(0);
+            return new CardDto(card.id(), "**** **** **** " + card.cardNumberLast4(), card.ownerName(),
+                    card.expiryDate(), card.status(), card.balance(), card.version());
+        });
+    }
+
+    @Test
+    @DisplayName("Should write one JSON object per line and close the database stream")
+    void exportCards_AsNdjson_ShouldWriteOneObjectPerLine() throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        long exported = cardExportService.exportCards(CardExportFormat.NDJSON, output);
+
+        assertThat(exported).isEqualTo(2);
+        String[] lines = output.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(lines).hasSize(2);
+        assertThat(lines[0]).isEqualTo("{\"id\":1,\"maskedCardNumber\":\"**** **** **** 4242\",\"ownerName\":\"Alice\","
+                + "\"expiryDate\":\"2030-01-31\",\"status\":\"ACTIVE\",\"balance\":10.50,\"version\":0}");
+        assertThat(streamClosed).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should write a CSV header and quote fields containing separators")
+    void exportCards_AsCsv_ShouldQuoteFields() throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        cardExportService.exportCards(CardExportFormat.CSV, output);
+
+        assertThat(output.toString(StandardCharsets.UTF_8)).isEqualTo(
+                "id,maskedCardNumber,ownerName,expiryDate,status,balance,version\n"
+                        + "1,**** **** **** 4242,Alice,2030-01-31,ACTIVE,10.50,0\n"
+                        + "2,**** **** **** 1111,\"Smith, \"\"Bob\"\"\",2030-01-31,BLOCKED,0,3\n");
+        assertThat(streamClosed).isTrue();
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.BaseIntegrationTest;
+import com.example.bankcards.dto.CardImportResponseDto;
+import com.example.bankcards.entity.User;
+import com.example.bankcards.entity.enums.Role;
+import com.example.bankcards.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.context.support.WithMockUser;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Measures bulk card issuance through the CSV import. Excluded from the default build;
+ * run with {@code mvn test -Pbenchmark -Dtest=CardImportBenchmarkTest}.
+ */
+@Tag("benchmark")
+@DisplayName("Card Import Throughput Benchmark")
+class CardImportBenchmarkTest extends BaseIntegrationTest {
+
+    private static final int CARDS = 100_000;
+
+    @Autowired
+    private CardImportService cardImportService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User owner;
+
+    @BeforeEach
+    void setUp() {
+        owner = new User();
+        owner.setUsername("import-" + UUID.randomUUID());
+        owner.setPassword("password");
+        owner.setOwnerName("Import Benchmark");
+        owner.setRole(Role.USER);
+        owner = userRepository.save(owner);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("delete from cards where user_id = ?", owner.getId());
+        userRepository.deleteById(owner.getId());
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    @DisplayName("Should report cards imported per second")
+    void measureImportThroughput() throws Exception {
+        StringBuilder csv = new StringBuilder(CardImportService.CSV_HEADER).append('\n');
+        for (int i = 0; i < CARDS; i++) {
+            csv.append(owner.getId()).append(',')
+                    .append(withCheckDigit(String.format("530%012d", i))).append(',')
+                    .append("2031-06-30,").append(i % 1000).append(".00\n");
+        }
+        byte[] body = csv.toString().getBytes(StandardCharsets.UTF_8);
+
+        long start = System.nanoTime();
+        CardImportResponseDto report = cardImportService.importCards(new ByteArrayInputStream(body));
+        double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("Card import: %.0f cards/s over %d cards%n", CARDS / elapsedSeconds, CARDS);
+
+        assertThat(report.failed()).isZero();
+        assertThat(report.imported()).isEqualTo(CARDS);
+    }
+
+    /**
+     * Appends the Luhn check digit, so every generated number passes card number validation.
+     */
+    private static String withCheckDigit(String digits) {
+        int sum = 0;
+        for (int i = 0; i < digits.length(); i++) {
+            int digit = digits.charAt(digits.length() - 1 - i) - '0';
+            if (i % 2 == 0) {
+                digit *= 2;
+                if (digit > 9) {
+                    digit -= 9;
+                }
+            }
+            sum += digit;
+        }
+        return digits + (10 - sum % 10) % 10;
+    }
+}
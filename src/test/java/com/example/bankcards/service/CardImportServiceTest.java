@@ -0,0 +1,150 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.dto.CardImportResponseDto;
+import com.example.bankcards.dto.CardImportResponseDto.RowError;
+import com.example.bankcards.entity.enums.AuditAction;
+import com.example.bankcards.exception.CardOperationException;
+import com.example.bankcards.repository.CardBulkInsertRepository.NewCard;
+import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.repository.UserRepository;
+import com.example.bankcards.util.CardNumberConverter;
+import com.example.bankcards.util.CardNumberHasher;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Card Import Service Unit Tests")
+class CardImportServiceTest {
+
+    private static final String EXISTING_CARD = "5555555555554444";
+
+    @Mock
+    private CardRepository cardRepository;
+    @Mock
+    private UserRepository userRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    @Mock
+    private CardPageCache cardPageCache;
+    @Mock
+    private AuditTrail auditTrail;
+
+    private final CardNumberConverter cardNumberConverter = new CardNumberConverter("0123456789abcdef", new SimpleMeterRegistry());
+    private final CardNumberHasher cardNumberHasher = new CardNumberHasher("0123456789abcdef0123456789abcdef");
+
+    @Test
+    @DisplayName("Should insert valid rows and report every rejected row by line number")
+    void importCards_ShouldInsertValidRowsAndReportRejectedLines() throws Exception {
+        when(userRepository.findExistingIds(anyCollection())).thenReturn(List.of(1L));
+        insertAllExcept(EXISTING_CARD);
+
+        CardImportResponseDto report = service(100, 100).importCards(csv(
+                "1,4111111111111111,2031-06-30,100.00",
+                "1,4111111111111112,2031-06-30,100.00",
+                "",
+                "1,4111111111111111,2031-06-30,5.00",
+                "2,4012888888881881,2031-06-30,0",
+                "1," + EXISTING_CARD + ",2031-06-30,0",
+                "1,6011111111111117,2031-06-30",
+                "one,378282246310005,2031-06-30,0",
+                "1,378282246310005,2031-06-30,12.50"));
+
+        assertThat(report.imported()).isEqualTo(2);
+        assertThat(report.failed()).isEqualTo(6);
+        assertThat(report.errors()).containsExactly(
+                new RowError(3, "cardNumber: Invalid credit card number"),
+                new RowError(5, "Duplicate of the card number on line 2."),
+                new RowError(6, "User not found with id: 2"),
+                new RowError(7, "A card with this number already exists."),
+                new RowError(8, "Expected 4 columns but found 3."),
+                new RowError(9, "userId and initialBalance must be numbers."));
+
+        ArgumentCaptor<List<NewCard>> inserted = ArgumentCaptor.captor();
+        verify(cardRepository).insertIgnoringDuplicates(inserted.capture());
+        NewCard first = inserted.getValue().get(0);
+        assertThat(first.cardNumberLast4()).isEqualTo("1111");
+        assertThat(first.cardNumberHash()).isEqualTo(cardNumberHasher.hash("4111111111111111"));
+        assertThat(cardNumberConverter.convertToEntityAttribute(first.encryptedCardNumber())).isEqualTo("4111111111111111");
+        verify(cardPageCache).invalidate(1L);
+        verify(auditTrail).record(AuditAction.CARDS_IMPORTED, null, "Imported: 2, rejected: 6");
+    }
+
+    @Test
+    @DisplayName("Should insert each chunk in its own statement and cap the reported errors")
+    void importCards_ShouldInsertPerChunkAndCapErrors() throws Exception {
+        when(userRepository.findExistingIds(anyCollection())).thenReturn(List.of(1L));
+        insertAllExcept();
+
+        CardImportResponseDto report = service(2, 1).importCards(csv(
+                "1,4111111111111111,2031-06-30,1",
+                "1,4012888888881881,2031-06-30,1",
+                "1,bad,2031-06-30,1",
+                "1,6011111111111117,2031-06-30,1",
+                "1,378282246310005,2020-01-01,1",
+                "1," + EXISTING_CARD + ",2031-06-30,1"));
+
+        assertThat(report.imported()).isEqualTo(4);
+        assertThat(report.failed()).isEqualTo(2);
+        assertThat(report.errors()).hasSize(1);
+        assertThat(report.errors().get(0).line()).isEqualTo(4);
+        verify(cardRepository, times(3)).insertIgnoringDuplicates(anyList());
+    }
+
+    @Test
+    @DisplayName("Should reject a file without the expected header")
+    void importCards_WithoutHeader_ShouldThrow() {
+        var body = new ByteArrayInputStream("1,4111111111111111,2031-06-30,1\n".getBytes(StandardCharsets.UTF_8));
+
+        assertThatThrownBy(() -> service(100, 100).importCards(body))
+                .isInstanceOf(CardOperationException.class)
+                .hasMessageStartingWith("The first line must be the header");
+        verifyNoInteractions(cardRepository);
+    }
+
+    private CardImportService service(int chunkSize, int maxReportedErrors) {
+        return new CardImportService(cardRepository, userRepository, cardNumberConverter, cardNumberHasher,
+                Validation.buildDefaultValidatorFactory().getValidator(),
+                new TransactionTemplate(transactionManager), cardPageCache, auditTrail, chunkSize, maxReportedErrors);
+    }
+
+    private void insertAllExcept(String... existingCardNumbers) {
+        Set<String> existing = Set.of(existingCardNumbers).stream()
+                .map(cardNumberHasher::hash)
+                .collect(Collectors.toSet());
+        when(cardRepository.insertIgnoringDuplicates(anyList())).thenAnswer(invocation -> {
+            List<NewCard> cards = invocation.getArgument(0);
+            return cards.stream()
+                    .map(NewCard::cardNumberHash)
+                    .filter(hash -> !existing.contains(hash))
+                    .collect(Collectors.toSet());
+        });
+    }
+
+    private static ByteArrayInputStream csv(String... rows) {
+        String body = CardImportService.CSV_HEADER + "\n" + String.join("\n", rows) + "\n";
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+}
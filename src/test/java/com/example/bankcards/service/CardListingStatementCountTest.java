@@ -0,0 +1,117 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.BaseIntegrationTest;
+import com.example.bankcards.dto.CardDto;
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.entity.User;
+import com.example.bankcards.entity.enums.CardStatus;
+import com.example.bankcards.entity.enums.Role;
+import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.repository.UserRepository;
+import com.example.bankcards.security.UserPrincipal;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@DisplayName("Card Listing Statement Count Tests")
+class CardListingStatementCountTest extends BaseIntegrationTest {
+
+    private static final int CARD_COUNT = 60;
+    private static final List<Integer> PAGE_SIZES = List.of(5, 20, 50);
+
+    @Autowired
+    private CardService cardService;
+    @Autowired
+    private AdminService adminService;
+    @Autowired
+    private CardRepository cardRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private User owner;
+    private final List<Long> cardIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        owner = new User();
+        owner.setUsername("listing-" + UUID.randomUUID());
+        owner.setPassword("password");
+        owner.setOwnerName("Listing Owner");
+        owner.setRole(Role.USER);
+        owner = userRepository.save(owner);
+
+        for (int i = 0; i < CARD_COUNT; i++) {
+            String cardNumber = String.format("5%015d", System.nanoTime() % 1_000_000_000_000_000L + i);
+            Card card = new Card();
+            card.setUser(owner);
+            card.setCardNumber(cardNumber);
+            card.setCardNumberLast4(cardNumber.substring(cardNumber.length() - 4));
+            card.setCardNumberLength(cardNumber.length());
+            card.setExpiryDate(LocalDate.now().plusYears(1));
+            card.setStatus(CardStatus.ACTIVE);
+            card.setBalance(BigDecimal.TEN);
+            cardIds.add(cardRepository.save(card).getId());
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        cardRepository.deleteAllById(cardIds);
+        userRepository.deleteById(owner.getId());
+    }
+
+    @Test
+    @DisplayName("Should issue the same number of statements per user page regardless of page size")
+    void getUserCards_ShouldUseConstantStatementCount() {
+        UserPrincipal principal = new UserPrincipal(owner.getId(), owner.getUsername(), Role.USER, false);
+
+        // the version query behind the page's entity tag, one select for the page and one count query
+        assertConstantStatementCount(pageable -> cardService.getUserCards(principal, pageable).page(), 3);
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    @DisplayName("Should issue the same number of statements per admin page regardless of page size")
+    void getAllCards_ShouldUseConstantStatementCount() {
+        // one select for the page and one count query
+        assertConstantStatementCount(adminService::getAllCards, 2);
+    }
+
+    private void assertConstantStatementCount(Function<Pageable, Page<CardDto>> listing, long expectedStatements) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        List<Long> statementCounts = new ArrayList<>();
+
+        for (int pageSize : PAGE_SIZES) {
+            statistics.clear();
+            Page<CardDto> page = listing.apply(PageRequest.of(0, pageSize));
+
+            assertThat(page.getContent()).hasSize(pageSize);
+            assertThat(page.getContent()).allSatisfy(card -> assertThat(card.ownerName()).isNotNull());
+            statementCounts.add(statistics.getPrepareStatementCount());
+        }
+
+        assertThat(statementCounts).containsOnly(expectedStatements);
+    }
+}
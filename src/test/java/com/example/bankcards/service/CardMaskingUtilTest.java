@@ -51,7 +51,9 @@ class CardMaskingUtilTest {
     @ParameterizedTest
     @CsvSource({
             "123456789, **** *678 9",
-            "12345, *234 5"
+            "12345, *234 5",
+            "378282246310005, **** **** ***0 005",
+            "6200000000000000123, **** **** **** ***0 123"
     })
     @DisplayName("Should correctly format masking for non-standard length numbers")
     void maskCardNumber_WithVariousLengths_ShouldFormatCorrectly(String input, String expected) {
@@ -59,4 +61,42 @@ class CardMaskingUtilTest {
 
         assertThat(actual).isEqualTo(expected);
     }
+
+    @ParameterizedTest
+    @CsvSource({
+            "4444, 16, **** **** **** 4444",
+            "6789, 9, **** *678 9",
+            "1234, 19, **** **** **** ***1 234",
+            "123, 3, 123"
+    })
+    @DisplayName("Should mask a card number from its stored last digits and length")
+    void maskCardNumber_FromStoredSuffix_ShouldFormatCorrectly(String lastDigits, int length, String expected) {
+        String actual = cardMaskingUtil.maskCardNumber(lastDigits, length);
+
+        assertThat(actual).isEqualTo(expected);
+    }
+
+    @Test
+    @DisplayName("Should return an empty string when the stored suffix is missing")
+    void maskCardNumber_WithMissingSuffix_ShouldReturnEmptyString() {
+        assertThat(cardMaskingUtil.maskCardNumber(null, 16)).isEmpty();
+        assertThat(cardMaskingUtil.maskCardNumber("1234", null)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should honour the configured mask character and visible digit count")
+    void maskCardNumber_WithCustomSettings_ShouldUseThem() {
+        CardMaskingUtil customMaskingUtil = new CardMaskingUtil(6, '#');
+
+        assertThat(customMaskingUtil.maskCardNumber("1234567812345678")).isEqualTo("#### #### ##34 5678");
+        assertThat(customMaskingUtil.maskCardNumber("5678", 16)).isEqualTo("#### #### #### 5678");
+    }
+
+    @Test
+    @DisplayName("Should mask numbers longer than the cached templates")
+    void maskCardNumber_WithVeryLongNumber_ShouldMaskCorrectly() {
+        String actual = cardMaskingUtil.maskCardNumber("1".repeat(36) + "2345");
+
+        assertThat(actual).isEqualTo("**** ".repeat(9) + "2345");
+    }
 }
@@ -0,0 +1,97 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.util.CardNumberHasher;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Card Number Backfill Job Unit Tests")
+class CardNumberBackfillJobTest {
+
+    @Mock
+    private CardRepository cardRepository;
+    @Mock
+    private CardPageCache cardPageCache;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private CardNumberBackfillJob backfillJob;
+
+    @BeforeEach
+    void setUp() {
+        backfillJob = new CardNumberBackfillJob(
+                cardRepository,
+                new CardNumberHasher("Zq4tV8mN2xR6cJ1pW9eH3kL7bF5sD0gA"),
+                cardPageCache,
+                new TransactionTemplate(transactionManager),
+                new SyncTaskExecutor(),
+                2);
+    }
+
+    @Test
+    @DisplayName("Should fill the derived columns chunk by chunk and invalidate cached pages after each one")
+    void backfill_ShouldFillAllChunks() {
+        Card first = card(1L, "4242424242424242");
+        Card second = card(2L, "5555555555554444");
+        Card third = card(5L, "378282246310005");
+        when(cardRepository.findWithMissingDerivedColumns(eq(0L), eq(Limit.of(2))))
+                .thenReturn(List.of(first, second));
+        when(cardRepository.findWithMissingDerivedColumns(eq(2L), eq(Limit.of(2))))
+                .thenReturn(List.of(third));
+        when(cardRepository.findWithMissingDerivedColumns(eq(5L), eq(Limit.of(2))))
+                .thenReturn(List.of());
+
+        int updated = backfillJob.backfill();
+
+        assertThat(updated).isEqualTo(3);
+        ArgumentCaptor<String> hashes = ArgumentCaptor.forClass(String.class);
+        verify(cardRepository).updateDerivedColumns(eq(1L), eq("4242"), eq(16), hashes.capture());
+        verify(cardRepository).updateDerivedColumns(eq(2L), eq("4444"), eq(16), hashes.capture());
+        verify(cardRepository).updateDerivedColumns(eq(5L), eq("0005"), eq(15), hashes.capture());
+        assertThat(hashes.getAllValues().get(0)).hasSize(64).isNotEqualTo(hashes.getAllValues().get(1));
+        assertThat(first.getCardNumberLast4()).as("the entity is never modified, so never flushed").isNull();
+        verify(cardPageCache, times(2)).invalidateAll();
+    }
+
+    @Test
+    @DisplayName("Should stop and report what was done when a chunk fails instead of failing silently")
+    void backfill_WhenChunkFails_ShouldStopWithoutThrowing() {
+        when(cardRepository.findWithMissingDerivedColumns(eq(0L), eq(Limit.of(2))))
+                .thenReturn(List.of(card(1L, "4242424242424242"), card(2L, "5555555555554444")));
+        when(cardRepository.findWithMissingDerivedColumns(eq(2L), eq(Limit.of(2))))
+                .thenThrow(new QueryTimeoutException("statement timeout"));
+
+        assertThat(backfillJob.backfill()).isEqualTo(2);
+        verify(cardRepository, times(2)).updateDerivedColumns(any(), any(), anyInt(), any());
+        verify(cardPageCache, times(1)).invalidateAll();
+    }
+
+    private static Card card(Long id, String cardNumber) {
+        Card card = new Card();
+        card.setId(id);
+        card.setCardNumber(cardNumber);
+        return card;
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.util.CardNumberConverter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@DisplayName("Card Number Converter Tests")
+class CardNumberConverterTest {
+
+    private static final String SECRET = "p7sA2fG4jX9mK5hVdC1tYqR8nL3wE6zB";
+
+    private CardNumberConverter converter;
+
+    @BeforeEach
+    void setUp() {
+        converter = new CardNumberConverter(SECRET, new SimpleMeterRegistry());
+    }
+
+    @Test
+    @DisplayName("Should produce the same ciphertext as a plain AES/ECB cipher")
+    void convertToDatabaseColumn_ShouldMatchReferenceCipher() throws Exception {
+        String cardNumber = "4242424242424242";
+
+        assertThat(converter.convertToDatabaseColumn(cardNumber)).isEqualTo(referenceEncrypt(cardNumber));
+        assertThat(converter.convertToEntityAttribute(referenceEncrypt(cardNumber))).isEqualTo(cardNumber);
+    }
+
+    @Test
+    @DisplayName("Should pass null values through")
+    void convert_WithNull_ShouldReturnNull() {
+        assertThat(converter.convertToDatabaseColumn(null)).isNull();
+        assertThat(converter.convertToEntityAttribute(null)).isNull();
+    }
+
+    @Test
+    @DisplayName("Should reject corrupted ciphertext")
+    void convertToEntityAttribute_WithCorruptedData_ShouldThrowException() {
+        assertThrows(RuntimeException.class, () -> converter.convertToEntityAttribute("not-base64!"));
+    }
+
+    @Test
+    @DisplayName("Should reject keys of invalid length")
+    void constructor_WithInvalidKey_ShouldThrowException() {
+        assertThrows(IllegalArgumentException.class, () -> new CardNumberConverter("short", new SimpleMeterRegistry()));
+    }
+
+    @Test
+    @DisplayName("Should round-trip card numbers correctly when used from many threads at once")
+    void convert_UnderConcurrentLoad_ShouldRoundTripEveryValue() throws Exception {
+        int threads = 32;
+        int iterations = 2_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Callable<Integer>> tasks = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                tasks.add(() -> {
+                    int mismatches = 0;
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    for (int i = 0; i < iterations; i++) {
+                        String cardNumber = randomCardNumber(random, 13 + random.nextInt(7));
+                        String encrypted = converter.convertToDatabaseColumn(cardNumber);
+                        if (!encrypted.equals(referenceEncrypt(cardNumber))
+                                || !cardNumber.equals(converter.convertToEntityAttribute(encrypted))) {
+                            mismatches++;
+                        }
+                    }
+                    return mismatches;
+                });
+            }
+
+            int mismatches = 0;
+            for (Future<Integer> result : executor.invokeAll(tasks)) {
+                mismatches += result.get();
+            }
+            assertThat(mismatches).isZero();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static String randomCardNumber(ThreadLocalRandom random, int length) {
+        char[] digits = new char[length];
+        for (int i = 0; i < length; i++) {
+            digits[i] = (char) ('0' + random.nextInt(10));
+        }
+        return new String(digits);
+    }
+
+    private static String referenceEncrypt(String cardNumber) throws Exception {
+        Cipher cipher = Cipher.getInstance("AES/ECB/PKCS5Padding");
+        cipher.init(Cipher.ENCRYPT_MODE, new SecretKeySpec(SECRET.getBytes(StandardCharsets.UTF_8), "AES"));
+        return Base64.getEncoder().encodeToString(cipher.doFinal(cardNumber.getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.config.ReplicaRoutingDataSource;
+import com.example.bankcards.dto.CardDto;
+import com.example.bankcards.dto.VersionedPage;
+import com.example.bankcards.entity.enums.CardStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+@DisplayName("Card Page Cache Unit Tests")
+class CardPageCacheTest {
+
+    private static final Pageable FIRST_PAGE = PageRequest.of(0, 10);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ReplicaRoutingDataSource replicaRoutingDataSource = mock(ReplicaRoutingDataSource.class);
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private CardPageCache cardPageCache;
+
+    @BeforeEach
+    void setUp() {
+        cardPageCache = new CardPageCache(replicaRoutingDataSource, meterRegistry, Duration.ofMinutes(5), 100);
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.clear();
+    }
+
+    @Test
+    @DisplayName("Should load a page once and count hits and misses")
+    void get_ShouldServeRepeatedRequestsFromCache() {
+        VersionedPage<CardDto> first = cardPageCache.get(1L, FIRST_PAGE, () -> page("10.00"));
+        VersionedPage<CardDto> second = cardPageCache.get(1L, FIRST_PAGE, () -> page("20.00"));
+        cardPageCache.get(1L, PageRequest.of(1, 10), () -> page("30.00"));
+        cardPageCache.get(2L, FIRST_PAGE, () -> page("40.00"));
+
+        assertThat(second).isSameAs(first);
+        assertThat(loads).hasValue(3);
+        assertThat(gets("hit")).isEqualTo(1);
+        assertThat(gets("miss")).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Should keep serving the cached page until the change commits, then reload it from the primary")
+    void invalidate_ShouldTakeEffectAfterCommit() {
+        cardPageCache.get(1L, FIRST_PAGE, () -> page("10.00"));
+        TransactionSynchronizationManager.initSynchronization();
+
+        cardPageCache.invalidate(1L);
+        assertThat(balance(cardPageCache.get(1L, FIRST_PAGE, () -> page("20.00")))).isEqualTo("10.00");
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertThat(balance(cardPageCache.get(1L, FIRST_PAGE, () -> page("20.00")))).isEqualTo("20.00");
+        verify(replicaRoutingDataSource).pinToPrimary(1L);
+    }
+
+    @Test
+    @DisplayName("Should not serve a page whose load raced with a committed change")
+    void get_WhenLoadRacesWithCommittedChange_ShouldReloadNextTime() {
+        cardPageCache.get(1L, FIRST_PAGE, () -> {
+            VersionedPage<CardDto> loadedBeforeCommit = page("10.00");
+            cardPageCache.invalidate(1L);
+            return loadedBeforeCommit;
+        });
+
+        assertThat(balance(cardPageCache.get(1L, FIRST_PAGE, () -> page("20.00")))).isEqualTo("20.00");
+    }
+
+    @Test
+    @DisplayName("Should answer the entity tag of a cached page without computing it, and compute it otherwise")
+    void getETag_ShouldPreferTheCachedPage() {
+        cardPageCache.get(1L, FIRST_PAGE, () -> page("10.00"));
+
+        assertThat(cardPageCache.getETag(1L, FIRST_PAGE, () -> "W/\"computed\"")).isEqualTo("W/\"10.00\"");
+        assertThat(cardPageCache.getETag(1L, PageRequest.of(1, 10), () -> "W/\"computed\"")).isEqualTo("W/\"computed\"");
+
+        cardPageCache.invalidate(1L);
+        assertThat(cardPageCache.getETag(1L, FIRST_PAGE, () -> "W/\"computed\"")).isEqualTo("W/\"computed\"");
+    }
+
+    @Test
+    @DisplayName("Should reload every user's pages from the primary after a change to many users' cards")
+    void invalidateAll_ShouldReloadEveryUser() {
+        cardPageCache.get(1L, FIRST_PAGE, () -> page("10.00"));
+        cardPageCache.get(2L, FIRST_PAGE, () -> page("10.00"));
+
+        cardPageCache.invalidateAll();
+
+        assertThat(balance(cardPageCache.get(1L, FIRST_PAGE, () -> page("20.00")))).isEqualTo("20.00");
+        assertThat(balance(cardPageCache.get(2L, FIRST_PAGE, () -> page("20.00")))).isEqualTo("20.00");
+        verify(replicaRoutingDataSource).pinAllToPrimary();
+    }
+
+    private VersionedPage<CardDto> page(String balance) {
+        loads.incrementAndGet();
+        var card = new CardDto(1L, "**** **** **** 1111", "Owner", LocalDate.of(2031, 1, 1),
+                CardStatus.ACTIVE, new BigDecimal(balance), 0L);
+        return new VersionedPage<>("W/\"" + balance + "\"", new PageImpl<>(List.of(card), FIRST_PAGE, 1));
+    }
+
+    private static String balance(VersionedPage<CardDto> page) {
+        return page.page().getContent().get(0).balance().toPlainString();
+    }
+
+    private double gets(String result) {
+        return meterRegistry.get("cache.gets").tag("cache", "card_pages").tag("result", result)
+                .functionCounter().count();
+    }
+}
@@ -4,8 +4,12 @@ import com.example.bankcards.entity.Card;
 import com.example.bankcards.entity.User;
 import com.example.bankcards.entity.enums.CardStatus;
 import com.example.bankcards.exception.CardOperationException;
+import com.example.bankcards.entity.enums.Role;
 import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.security.UserPrincipal;
 import com.example.bankcards.util.CardMaskingUtil;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -13,12 +17,22 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import java.time.LocalDate;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -30,21 +44,26 @@ class CardServiceTest {
     private CardRepository cardRepository;
     @Mock
     private CardMaskingUtil cardMaskingUtil;
+    @Mock
+    private CardPageCache cardPageCache;
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
 
     @InjectMocks
     private CardService cardService;
 
-    private User cardOwner;
+    private UserPrincipal cardOwner;
     private Card card;
 
     @BeforeEach
     void setUp() {
-        cardOwner = new User();
-        cardOwner.setId(1L);
+        cardOwner = new UserPrincipal(1L, "owner", Role.USER, false);
+        User owner = new User();
+        owner.setId(cardOwner.id());
 
         card = new Card();
         card.setId(100L);
-        card.setUser(cardOwner);
+        card.setUser(owner);
         card.setStatus(CardStatus.ACTIVE);
     }
 
@@ -60,15 +79,47 @@ class CardServiceTest {
         Card savedCard = cardCaptor.getValue();
 
         assertThat(savedCard.getStatus()).isEqualTo(CardStatus.BLOCKED);
+        verify(cardPageCache).invalidate(cardOwner.id());
     }
 
     @Test
     @DisplayName("Should throw exception when trying to block a card not owned by the user")
     void requestCardBlock_WhenUserIsNotOwner_ShouldThrowException() {
-        User anotherUser = new User();
-        anotherUser.setId(2L);
+        UserPrincipal anotherUser = new UserPrincipal(2L, "another", Role.USER, false);
         when(cardRepository.findById(card.getId())).thenReturn(Optional.of(card));
 
         assertThrows(CardOperationException.class, () -> cardService.requestCardBlock(card.getId(), anotherUser));
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Should derive the cards' ETag from the user's card versions and the page, without loading any card")
+    void getUserCardsETag_ShouldNotLoadCards() {
+        Pageable firstPage = PageRequest.of(0, 10);
+        when(cardPageCache.getETag(eq(cardOwner.id()), any(Pageable.class), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<String>>getArgument(2).get());
+        when(cardRepository.findCardsVersionByUserId(cardOwner.id())).thenReturn("2-101-5", "2-101-5", "2-101-6");
+
+        String eTag = cardService.getUserCardsETag(cardOwner, firstPage);
+
+        assertThat(eTag).startsWith("W/\"");
+        assertThat(cardService.getUserCardsETag(cardOwner, PageRequest.of(1, 10))).isNotEqualTo(eTag);
+        assertThat(cardService.getUserCardsETag(cardOwner, firstPage)).isNotEqualTo(eTag);
+        verify(cardRepository, never()).findSummariesByUserId(any(), any());
+    }
+
+    @Test
+    @DisplayName("Should expire cards in chunks until a partial chunk is updated")
+    void updateExpiredCardStatuses_ShouldUpdateInChunks() {
+        ReflectionTestUtils.setField(cardService, "expiryChunkSize", 2);
+        when(cardRepository.expireActiveCardsBefore(LocalDate.now(), 2)).thenReturn(2, 2, 0);
+
+        int expired = cardService.updateExpiredCardStatuses();
+
+        assertThat(expired).isEqualTo(4);
+        verify(cardRepository, times(3)).expireActiveCardsBefore(any(LocalDate.class), eq(2));
+        verify(cardRepository, never()).saveAll(any());
+        verify(cardPageCache, times(2)).invalidateAll();
+        assertThat(meterRegistry.get("bank.cards.expired").counter().count()).isEqualTo(4);
+        assertThat(meterRegistry.get("bank.cards.expiry.runs").timer().count()).isEqualTo(1);
+    }
+}
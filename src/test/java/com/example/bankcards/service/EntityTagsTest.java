@@ -0,0 +1,42 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.exception.PreconditionFailedException;
+import com.example.bankcards.util.EntityTags;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@DisplayName("Entity Tags Tests")
+class EntityTagsTest {
+
+    @Test
+    @DisplayName("Should match If-None-Match with weak comparison, including lists and the wildcard")
+    void noneMatchHits_ShouldUseWeakComparison() {
+        String tag = EntityTags.weak(1L, "2-10-7");
+
+        assertThat(EntityTags.noneMatchHits(tag, tag)).isTrue();
+        assertThat(EntityTags.noneMatchHits(tag.substring(2), tag)).isTrue();
+        assertThat(EntityTags.noneMatchHits("\"other\", " + tag, tag)).isTrue();
+        assertThat(EntityTags.noneMatchHits("*", tag)).isTrue();
+        assertThat(EntityTags.noneMatchHits(EntityTags.weak(1L, "2-10-8"), tag)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should read the required version from a strong If-Match tag and ignore a wildcard")
+    void requiredVersion_ShouldParseStrongVersionTag() {
+        assertThat(EntityTags.requiredVersion(EntityTags.ofVersion(3))).isEqualTo(3L);
+        assertThat(EntityTags.requiredVersion("*")).isNull();
+        assertThat(EntityTags.requiredVersion(null)).isNull();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"W/\"3\"", "\"abc\"", "\"3\", \"4\"", "3"})
+    @DisplayName("Should fail the precondition for tags that can never match a card version")
+    void requiredVersion_WithUnmatchableTag_ShouldThrowPreconditionFailed(String ifMatch) {
+        assertThrows(PreconditionFailedException.class, () -> EntityTags.requiredVersion(ifMatch));
+    }
+}
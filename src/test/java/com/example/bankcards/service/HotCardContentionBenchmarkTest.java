@@ -0,0 +1,172 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.BaseIntegrationTest;
+import com.example.bankcards.dto.CardSummary;
+import com.example.bankcards.dto.TransferRequestDto;
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.entity.User;
+import com.example.bankcards.entity.enums.CardStatus;
+import com.example.bankcards.entity.enums.Role;
+import com.example.bankcards.exception.CardOperationException;
+import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.repository.UserRepository;
+import com.example.bankcards.security.UserPrincipal;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Measures transfer throughput when every transfer credits the same destination card, with and without
+ * balance shards on that card, and checks that no money is created or lost. Excluded from the default build;
+ * run with {@code mvn test -Pbenchmark -Dtest=HotCardContentionBenchmarkTest}.
+ */
+@Tag("benchmark")
+@DisplayName("Hot Card Contention Benchmark")
+class HotCardContentionBenchmarkTest extends BaseIntegrationTest {
+
+    private static final int WORKERS = 16;
+    private static final int TRANSFERS_PER_WORKER = 300;
+    private static final BigDecimal SOURCE_BALANCE = new BigDecimal("100000.00");
+    private static final BigDecimal AMOUNT = new BigDecimal("1.00");
+
+    @Autowired
+    private TransferService transferService;
+    @Autowired
+    private CardBalanceShardService cardBalanceShardService;
+    @Autowired
+    private CardRepository cardRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private User owner;
+    private UserPrincipal principal;
+    private Card hotCard;
+    private final List<Card> sources = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        owner = new User();
+        owner.setUsername("hot-card-" + UUID.randomUUID());
+        owner.setPassword("password");
+        owner.setOwnerName("Hot Card Benchmark");
+        owner.setRole(Role.USER);
+        owner = userRepository.save(owner);
+        principal = new UserPrincipal(owner.getId(), owner.getUsername(), Role.USER, false);
+
+        hotCard = cardRepository.save(newCard("4100000000000000", BigDecimal.ZERO));
+        for (int i = 0; i < WORKERS; i++) {
+            sources.add(cardRepository.save(newCard(String.format("4200%012d", i), SOURCE_BALANCE)));
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        selectEngine(TransferService.Engine.JPA);
+        cardRepository.deleteAllById(sources.stream().map(Card::getId).toList());
+        cardRepository.deleteById(hotCard.getId());
+        userRepository.deleteById(owner.getId());
+        cardBalanceShardService.refreshShardedCards();
+    }
+
+    @ParameterizedTest(name = "{0} engine, {1} shards")
+    @CsvSource({"JPA, 0", "JPA, 16", "DATABASE, 0", "DATABASE, 16"})
+    @DisplayName("Should report transfer throughput into one hot card and keep every balance exact")
+    void measureHotCardThroughput(TransferService.Engine engine, int shards) throws Exception {
+        selectEngine(engine);
+        transactionTemplate.executeWithoutResult(status ->
+                cardBalanceShardService.reshard(lockedCard(hotCard.getId()), shards));
+
+        long start = System.nanoTime();
+        try (ExecutorService workers = Executors.newFixedThreadPool(WORKERS)) {
+            List<Future<?>> results = new ArrayList<>();
+            for (Card source : sources) {
+                results.add(workers.submit(() -> {
+                    for (int i = 0; i < TRANSFERS_PER_WORKER; i++) {
+                        transferService.performTransfer(
+                                new TransferRequestDto(source.getId(), hotCard.getId(), AMOUNT), principal);
+                    }
+                }));
+            }
+            for (Future<?> result : results) {
+                result.get();
+            }
+        }
+        double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+        int transfers = WORKERS * TRANSFERS_PER_WORKER;
+        System.out.printf("Hot card, %s engine, %d shards: %.0f transfers/s over %d transfers%n",
+                engine, shards, transfers / elapsedSeconds, transfers);
+
+        BigDecimal received = AMOUNT.multiply(BigDecimal.valueOf(transfers));
+        assertThat(balanceOf(hotCard.getId())).isEqualByComparingTo(received);
+        assertThat(totalBalance()).isEqualByComparingTo(SOURCE_BALANCE.multiply(BigDecimal.valueOf(WORKERS)));
+
+        // the funds check must see the credits still sitting in the shards: exactly the full balance can leave
+        Card target = sources.get(0);
+        assertThatThrownBy(() -> transferService.performTransfer(
+                new TransferRequestDto(hotCard.getId(), target.getId(), received.add(new BigDecimal("0.01"))), principal))
+                .isInstanceOf(CardOperationException.class)
+                .hasMessage("Insufficient funds on the source card.");
+        transferService.performTransfer(new TransferRequestDto(hotCard.getId(), target.getId(), received), principal);
+        assertThat(balanceOf(hotCard.getId())).isEqualByComparingTo(BigDecimal.ZERO);
+
+        cardBalanceShardService.compact();
+        assertThat(totalBalance()).isEqualByComparingTo(SOURCE_BALANCE.multiply(BigDecimal.valueOf(WORKERS)));
+    }
+
+    private Card lockedCard(Long cardId) {
+        return cardRepository.findAllByIdForUpdate(List.of(cardId)).get(0);
+    }
+
+    private BigDecimal balanceOf(Long cardId) {
+        return summaries().stream()
+                .filter(card -> card.id().equals(cardId))
+                .map(CardSummary::balance)
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private BigDecimal totalBalance() {
+        return summaries().stream().map(CardSummary::balance).reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
+    private List<CardSummary> summaries() {
+        return cardRepository.findSummariesByUserId(owner.getId(), PageRequest.of(0, WORKERS + 1)).getContent();
+    }
+
+    private void selectEngine(TransferService.Engine engine) {
+        TransferService target = AopTestUtils.getTargetObject(transferService);
+        ReflectionTestUtils.setField(target, "engine", engine);
+    }
+
+    private Card newCard(String cardNumber, BigDecimal balance) {
+        Card card = new Card();
+        card.setUser(owner);
+        card.setCardNumber(cardNumber);
+        card.setExpiryDate(LocalDate.now().plusYears(1));
+        card.setStatus(CardStatus.ACTIVE);
+        card.setBalance(balance);
+        return card;
+    }
+}
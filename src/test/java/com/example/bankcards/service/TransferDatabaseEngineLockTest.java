@@ -0,0 +1,120 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.BaseIntegrationTest;
+import com.example.bankcards.dto.TransferRequestDto;
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.entity.User;
+import com.example.bankcards.entity.enums.CardStatus;
+import com.example.bankcards.entity.enums.Role;
+import com.example.bankcards.exception.TransferFailedException;
+import com.example.bankcards.exception.TransferFailedException.Reason;
+import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.repository.UserRepository;
+import com.example.bankcards.security.UserPrincipal;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@DisplayName("Transfer Database Engine Lock Tests")
+class TransferDatabaseEngineLockTest extends BaseIntegrationTest {
+
+    @Autowired
+    private TransferService transferService;
+    @Autowired
+    private CardRepository cardRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private DataSource dataSource;
+
+    private User owner;
+    private User stranger;
+    private Card ownCard;
+    private Card foreignCard;
+
+    @BeforeEach
+    void setUp() {
+        owner = userRepository.save(newUser("owner-"));
+        stranger = userRepository.save(newUser("stranger-"));
+        ownCard = cardRepository.save(newCard(owner, "4000000000000011"));
+        foreignCard = cardRepository.save(newCard(stranger, "4000000000000012"));
+        selectEngine(TransferService.Engine.DATABASE);
+    }
+
+    @AfterEach
+    void tearDown() {
+        selectEngine(TransferService.Engine.JPA);
+        cardRepository.deleteAllById(List.of(ownCard.getId(), foreignCard.getId()));
+        userRepository.deleteAllById(List.of(owner.getId(), stranger.getId()));
+    }
+
+    @Test
+    @DisplayName("Should reject a transfer to another user's card without waiting for that card's row lock")
+    void performTransfer_ToLockedForeignCard_ShouldNotBlock() throws Exception {
+        UserPrincipal principal = new UserPrincipal(owner.getId(), owner.getUsername(), Role.USER, false);
+        var request = new TransferRequestDto(ownCard.getId(), foreignCard.getId(), new BigDecimal("1.00"));
+
+        try (Connection lockHolder = dataSource.getConnection()) {
+            lockHolder.setAutoCommit(false);
+            try (PreparedStatement lock = lockHolder.prepareStatement("SELECT 1 FROM cards WHERE id = ? FOR UPDATE")) {
+                lock.setLong(1, foreignCard.getId());
+                lock.executeQuery().close();
+            }
+            try {
+                CompletableFuture<Void> transfer =
+                        CompletableFuture.runAsync(() -> transferService.performTransfer(request, principal));
+
+                var failure = assertThrows(ExecutionException.class, () -> transfer.get(5, TimeUnit.SECONDS));
+                assertThat(failure.getCause()).isInstanceOf(TransferFailedException.class);
+                assertThat(((TransferFailedException) failure.getCause()).getReason()).isEqualTo(Reason.ACCESS_DENIED);
+            } finally {
+                lockHolder.rollback();
+            }
+        }
+
+        assertThat(cardRepository.findById(ownCard.getId()).orElseThrow().getBalance())
+                .isEqualByComparingTo("100.00");
+    }
+
+    private void selectEngine(TransferService.Engine engine) {
+        TransferService target = AopTestUtils.getTargetObject(transferService);
+        ReflectionTestUtils.setField(target, "engine", engine);
+    }
+
+    private static User newUser(String prefix) {
+        User user = new User();
+        user.setUsername(prefix + UUID.randomUUID());
+        user.setPassword("password");
+        user.setOwnerName("Lock Test");
+        user.setRole(Role.USER);
+        return user;
+    }
+
+    private static Card newCard(User user, String cardNumber) {
+        Card card = new Card();
+        card.setUser(user);
+        card.setCardNumber(cardNumber);
+        card.setExpiryDate(LocalDate.now().plusYears(1));
+        card.setStatus(CardStatus.ACTIVE);
+        card.setBalance(new BigDecimal("100.00"));
+        return card;
+    }
+}
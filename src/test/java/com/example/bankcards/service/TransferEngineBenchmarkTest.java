@@ -0,0 +1,158 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.BaseIntegrationTest;
+import com.example.bankcards.dto.BatchTransferMode;
+import com.example.bankcards.dto.BatchTransferRequestDto;
+import com.example.bankcards.dto.TransferRequestDto;
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.entity.User;
+import com.example.bankcards.entity.enums.CardStatus;
+import com.example.bankcards.entity.enums.Role;
+import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.repository.UserRepository;
+import com.example.bankcards.security.UserPrincipal;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Measures per-transfer latency of each {@link TransferService.Engine} and the throughput of batch transfers. Excluded from the default build;
+ * run with {@code mvn test -Pbenchmark -Dtest=TransferEngineBenchmarkTest}.
+ */
+@Tag("benchmark")
+@DisplayName("Transfer Engine Latency Benchmark")
+class TransferEngineBenchmarkTest extends BaseIntegrationTest {
+
+    private static final int WARMUP_TRANSFERS = 500;
+    private static final int MEASURED_TRANSFERS = 5_000;
+    private static final int BATCH_SIZE = 500;
+
+    @Autowired
+    private TransferService transferService;
+    @Autowired
+    private CardRepository cardRepository;
+    @Autowired
+    private UserRepository userRepository;
+
+    private User owner;
+    private Card first;
+    private Card second;
+
+    @BeforeEach
+    void setUp() {
+        owner = new User();
+        owner.setUsername("benchmark-" + UUID.randomUUID());
+        owner.setPassword("password");
+        owner.setOwnerName("Benchmark");
+        owner.setRole(Role.USER);
+        owner = userRepository.save(owner);
+        first = cardRepository.save(newCard("4000000000000001"));
+        second = cardRepository.save(newCard("4000000000000002"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        selectEngine(TransferService.Engine.JPA);
+        cardRepository.deleteAllById(List.of(first.getId(), second.getId()));
+        userRepository.deleteById(owner.getId());
+    }
+
+    @ParameterizedTest
+    @EnumSource(TransferService.Engine.class)
+    @DisplayName("Should report p50/p99 transfer latency per engine")
+    void measureTransferLatency(TransferService.Engine engine) {
+        selectEngine(engine);
+        UserPrincipal principal = new UserPrincipal(owner.getId(), owner.getUsername(), Role.USER, false);
+
+        for (int i = 0; i < WARMUP_TRANSFERS; i++) {
+            transfer(i, principal);
+        }
+        long[] latencies = new long[MEASURED_TRANSFERS];
+        for (int i = 0; i < MEASURED_TRANSFERS; i++) {
+            long start = System.nanoTime();
+            transfer(i, principal);
+            latencies[i] = System.nanoTime() - start;
+        }
+
+        Arrays.sort(latencies);
+        System.out.printf("Transfer engine %s: p50 %.3f ms, p99 %.3f ms over %d transfers%n",
+                engine, percentile(latencies, 0.50), percentile(latencies, 0.99), MEASURED_TRANSFERS);
+
+        BigDecimal total = cardRepository.findAllById(List.of(first.getId(), second.getId())).stream()
+                .map(Card::getBalance)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        assertThat(total).isEqualByComparingTo("2000000.00");
+    }
+
+    @Test
+    @DisplayName("Should report batch transfer throughput")
+    void measureBatchThroughput() {
+        UserPrincipal principal = new UserPrincipal(owner.getId(), owner.getUsername(), Role.USER, false);
+        List<TransferRequestDto> transfers = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            boolean forward = i % 2 == 0;
+            transfers.add(new TransferRequestDto(
+                    forward ? first.getId() : second.getId(),
+                    forward ? second.getId() : first.getId(),
+                    new BigDecimal("1.00")));
+        }
+        var batch = new BatchTransferRequestDto(BatchTransferMode.ALL_OR_NOTHING, transfers);
+
+        for (int i = 0; i < WARMUP_TRANSFERS / BATCH_SIZE + 1; i++) {
+            transferService.performBatchTransfer(batch, principal);
+        }
+        int batches = MEASURED_TRANSFERS / BATCH_SIZE;
+        long start = System.nanoTime();
+        for (int i = 0; i < batches; i++) {
+            transferService.performBatchTransfer(batch, principal);
+        }
+        double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("Batch transfers: %.0f transfers/s in batches of %d%n",
+                batches * BATCH_SIZE / elapsedSeconds, BATCH_SIZE);
+    }
+
+    private void selectEngine(TransferService.Engine engine) {
+        TransferService target = AopTestUtils.getTargetObject(transferService);
+        ReflectionTestUtils.setField(target, "engine", engine);
+    }
+
+    private void transfer(int iteration, UserPrincipal principal) {
+        boolean forward = iteration % 2 == 0;
+        transferService.performTransfer(new TransferRequestDto(
+                forward ? first.getId() : second.getId(),
+                forward ? second.getId() : first.getId(),
+                new BigDecimal("1.00")), principal);
+    }
+
+    private static double percentile(long[] sortedNanos, double percentile) {
+        int index = (int) Math.ceil(percentile * sortedNanos.length) - 1;
+        return sortedNanos[Math.max(index, 0)] / 1_000_000.0;
+    }
+
+    private Card newCard(String cardNumber) {
+        Card card = new Card();
+        card.setUser(owner);
+        card.setCardNumber(cardNumber);
+        card.setExpiryDate(LocalDate.now().plusYears(1));
+        card.setStatus(CardStatus.ACTIVE);
+        card.setBalance(new BigDecimal("1000000.00"));
+        return card;
+    }
+}
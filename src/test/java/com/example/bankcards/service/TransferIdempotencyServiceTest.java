@@ -0,0 +1,123 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.dto.IdempotencyKeySummary;
+import com.example.bankcards.dto.TransferRequestDto;
+import com.example.bankcards.exception.CardOperationException;
+import com.example.bankcards.repository.TransferIdempotencyKeyRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Transfer Idempotency Service Unit Tests")
+class TransferIdempotencyServiceTest {
+
+    @Mock
+    private TransferIdempotencyKeyRepository idempotencyKeyRepository;
+
+    private TransferIdempotencyService idempotencyService;
+    private TransferRequestDto request;
+
+    @BeforeEach
+    void setUp() {
+        idempotencyService = new TransferIdempotencyService(idempotencyKeyRepository, Duration.ofHours(24), 100, 2);
+        request = new TransferRequestDto(10L, 20L, new BigDecimal("100.00"));
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    @Test
+    @DisplayName("Should claim a new key and answer later retries from the cache once committed")
+    void claimOrReplay_WithNewKey_ShouldClaimAndCacheAfterCommit() {
+        when(idempotencyKeyRepository.claim(eq(1L), eq("retry-1"), anyString(), any(), any())).thenReturn(1);
+
+        assertThat(idempotencyService.claimOrReplay(1L, "retry-1", request)).isFalse();
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+        assertThat(idempotencyService.claimOrReplay(1L, "retry-1", new TransferRequestDto(10L, 20L, new BigDecimal("100"))))
+                .isTrue();
+        verify(idempotencyKeyRepository, times(1)).claim(anyLong(), anyString(), anyString(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Should replay a key that was committed by another instance")
+    void claimOrReplay_WithKeyInDatabase_ShouldReplay() {
+        ArgumentCaptor<String> requestHash = ArgumentCaptor.forClass(String.class);
+        when(idempotencyKeyRepository.claim(eq(1L), eq("retry-1"), requestHash.capture(), any(), any())).thenReturn(0);
+        when(idempotencyKeyRepository.findRequestHash(1L, "retry-1"))
+                .thenAnswer(invocation -> Optional.of(new IdempotencyKeySummary(requestHash.getValue(), LocalDateTime.now())));
+
+        assertThat(idempotencyService.claimOrReplay(1L, "retry-1", request)).isTrue();
+        assertThat(TransactionSynchronizationManager.getSynchronizations()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should not cache a key read from the database beyond the row's own expiry")
+    void claimOrReplay_WithKeyAboutToExpire_ShouldNotOutliveTheRow() {
+        ArgumentCaptor<String> requestHash = ArgumentCaptor.forClass(String.class);
+        when(idempotencyKeyRepository.claim(eq(1L), eq("retry-1"), requestHash.capture(), any(), any())).thenReturn(0);
+        when(idempotencyKeyRepository.findRequestHash(1L, "retry-1")).thenAnswer(invocation -> Optional.of(
+                new IdempotencyKeySummary(requestHash.getValue(), LocalDateTime.now().minusHours(24))));
+
+        assertThat(idempotencyService.claimOrReplay(1L, "retry-1", request)).isTrue();
+        assertThat(idempotencyService.claimOrReplay(1L, "retry-1", request)).isTrue();
+
+        verify(idempotencyKeyRepository, times(2)).claim(anyLong(), anyString(), anyString(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Should reject a key reused for a different transfer")
+    void claimOrReplay_WithDifferentRequest_ShouldThrowException() {
+        when(idempotencyKeyRepository.claim(eq(1L), eq("retry-1"), anyString(), any(), any())).thenReturn(0);
+        when(idempotencyKeyRepository.findRequestHash(1L, "retry-1")).thenReturn(Optional.of(new IdempotencyKeySummary("other", LocalDateTime.now())));
+
+        var exception = assertThrows(CardOperationException.class,
+                () -> idempotencyService.claimOrReplay(1L, "retry-1", request));
+        assertThat(exception.getMessage()).isEqualTo("Idempotency-Key was already used for a different transfer request.");
+    }
+
+    @Test
+    @DisplayName("Should reject an over-long key before touching the database")
+    void claimOrReplay_WithTooLongKey_ShouldThrowException() {
+        assertThrows(CardOperationException.class,
+                () -> idempotencyService.claimOrReplay(1L, "k".repeat(256), request));
+        verify(idempotencyKeyRepository, never()).claim(anyLong(), anyString(), anyString(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Should purge expired keys in batches until a partial batch is deleted")
+    void purgeExpiredKeys_ShouldDeleteInBatches() {
+        when(idempotencyKeyRepository.deleteExpiredBatch(any(LocalDateTime.class), anyInt())).thenReturn(2, 2, 1);
+
+        assertThat(idempotencyService.purgeExpiredKeys()).isEqualTo(5);
+        verify(idempotencyKeyRepository, times(3)).deleteExpiredBatch(any(LocalDateTime.class), eq(2));
+    }
+}
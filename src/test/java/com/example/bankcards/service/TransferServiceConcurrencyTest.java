@@ -0,0 +1,126 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.BaseIntegrationTest;
+import com.example.bankcards.dto.TransferRequestDto;
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.entity.User;
+import com.example.bankcards.entity.enums.CardStatus;
+import com.example.bankcards.entity.enums.Role;
+import com.example.bankcards.exception.CardOperationException;
+import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.repository.UserRepository;
+import com.example.bankcards.security.UserPrincipal;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Transfer Service Concurrency Tests")
+class TransferServiceConcurrencyTest extends BaseIntegrationTest {
+
+    private static final int CARD_COUNT = 4;
+    private static final int THREADS = 16;
+    private static final int TRANSFERS = 4_000;
+    private static final long INITIAL_BALANCE_CENTS = 1_000_000;
+
+    @Autowired
+    private TransferService transferService;
+    @Autowired
+    private CardRepository cardRepository;
+    @Autowired
+    private UserRepository userRepository;
+
+    private User owner;
+    private final List<Long> cardIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        owner = new User();
+        owner.setUsername("stress-" + UUID.randomUUID());
+        owner.setPassword("password");
+        owner.setOwnerName("Stress Test");
+        owner.setRole(Role.USER);
+        owner = userRepository.save(owner);
+
+        for (int i = 0; i < CARD_COUNT; i++) {
+            Card card = new Card();
+            card.setUser(owner);
+            card.setCardNumber(String.format("4%015d", ThreadLocalRandom.current().nextLong(1_000_000_000_000_000L)));
+            card.setExpiryDate(LocalDate.now().plusYears(1));
+            card.setStatus(CardStatus.ACTIVE);
+            card.setBalance(BigDecimal.valueOf(INITIAL_BALANCE_CENTS, 2));
+            cardIds.add(cardRepository.save(card).getId());
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        cardRepository.deleteAllById(cardIds);
+        userRepository.deleteById(owner.getId());
+    }
+
+    @Test
+    @DisplayName("Should conserve the total balance under thousands of concurrent opposing transfers")
+    void performTransfer_UnderContention_ShouldConserveBalances() throws Exception {
+        UserPrincipal principal = new UserPrincipal(owner.getId(), owner.getUsername(), Role.USER, false);
+        AtomicLongArray expectedCents = new AtomicLongArray(CARD_COUNT);
+        for (int i = 0; i < CARD_COUNT; i++) {
+            expectedCents.set(i, INITIAL_BALANCE_CENTS);
+        }
+        AtomicInteger completed = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < TRANSFERS; i++) {
+                futures.add(executor.submit(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    int from = random.nextInt(CARD_COUNT);
+                    int to = (from + 1 + random.nextInt(CARD_COUNT - 1)) % CARD_COUNT;
+                    long amountCents = 1 + random.nextInt(1_000);
+                    var request = new TransferRequestDto(
+                            cardIds.get(from), cardIds.get(to), BigDecimal.valueOf(amountCents, 2));
+                    try {
+                        transferService.performTransfer(request, principal);
+                        expectedCents.addAndGet(from, -amountCents);
+                        expectedCents.addAndGet(to, amountCents);
+                        completed.incrementAndGet();
+                    } catch (CardOperationException e) {
+                        rejected.incrementAndGet();
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(2, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        List<Card> cards = cardRepository.findAllById(cardIds);
+        BigDecimal total = cards.stream().map(Card::getBalance).reduce(BigDecimal.ZERO, BigDecimal::add);
+        assertThat(total).isEqualByComparingTo(BigDecimal.valueOf(INITIAL_BALANCE_CENTS * CARD_COUNT, 2));
+        for (Card card : cards) {
+            int index = cardIds.indexOf(card.getId());
+            assertThat(card.getBalance()).isEqualByComparingTo(BigDecimal.valueOf(expectedCents.get(index), 2));
+        }
+        assertThat(completed.get() + rejected.get()).isEqualTo(TRANSFERS);
+    }
+}
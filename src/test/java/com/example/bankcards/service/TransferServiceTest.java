@@ -1,27 +1,43 @@
 package com.example.bankcards.service;
 
+import com.example.bankcards.dto.BatchTransferMode;
+import com.example.bankcards.dto.BatchTransferRequestDto;
+import com.example.bankcards.dto.BatchTransferResponseDto;
 import com.example.bankcards.dto.TransferRequestDto;
+import com.example.bankcards.dto.TransferResultDto;
 import com.example.bankcards.entity.Card;
 import com.example.bankcards.entity.User;
+import com.example.bankcards.entity.enums.AuditAction;
 import com.example.bankcards.entity.enums.CardStatus;
+import com.example.bankcards.exception.BatchTransferException;
 import com.example.bankcards.exception.CardOperationException;
+import com.example.bankcards.entity.enums.Role;
 import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.security.UserPrincipal;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -34,29 +50,43 @@ class TransferServiceTest {
     @Mock
     private CardRepository cardRepository;
 
+    @Mock
+    private TransferIdempotencyService transferIdempotencyService;
+
+    @Mock
+    private CardBalanceShardService cardBalanceShardService;
+    @Mock
+    private CardPageCache cardPageCache;
+    @Mock
+    private AuditTrail auditTrail;
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     @InjectMocks
     private TransferService transferService;
 
-    private User user;
+    private UserPrincipal user;
     private Card fromCard;
     private Card toCard;
 
     @BeforeEach
     void setUp() {
-        user = new User();
-        user.setId(1L);
-        user.setUsername("testuser");
+        user = new UserPrincipal(1L, "testuser", Role.USER, false);
+        User owner = new User();
+        owner.setId(user.id());
+        owner.setUsername(user.username());
 
         fromCard = new Card();
         fromCard.setId(10L);
-        fromCard.setUser(user);
+        fromCard.setUser(owner);
         fromCard.setStatus(CardStatus.ACTIVE);
         fromCard.setBalance(new BigDecimal("1000.00"));
         fromCard.setExpiryDate(LocalDate.now().plusYears(1));
 
         toCard = new Card();
         toCard.setId(20L);
-        toCard.setUser(user);
+        toCard.setUser(owner);
         toCard.setStatus(CardStatus.ACTIVE);
         toCard.setBalance(new BigDecimal("500.00"));
         toCard.setExpiryDate(LocalDate.now().plusYears(1));
@@ -66,26 +96,80 @@ class TransferServiceTest {
     @DisplayName("Should perform transfer successfully for valid request")
     void performTransfer_WhenRequestIsValid_ShouldSucceed() {
         var request = new TransferRequestDto(fromCard.getId(), toCard.getId(), new BigDecimal("100.00"));
-        when(cardRepository.findById(fromCard.getId())).thenReturn(Optional.of(fromCard));
-        when(cardRepository.findById(toCard.getId())).thenReturn(Optional.of(toCard));
+        when(cardRepository.findAllByIdAndUserIdForUpdate(List.of(fromCard.getId(), toCard.getId()), user.id()))
+                .thenReturn(List.of(fromCard, toCard));
 
         assertDoesNotThrow(() -> transferService.performTransfer(request, user));
 
         assertThat(fromCard.getBalance()).isEqualByComparingTo("900.00");
         assertThat(toCard.getBalance()).isEqualByComparingTo("600.00");
         verify(cardRepository, times(2)).save(any(Card.class));
+        verify(cardPageCache).invalidate(user.id());
+        verify(auditTrail).record(AuditAction.TRANSFER, fromCard.getId(), "Amount: 100.00, to card #" + toCard.getId());
+        assertThat(transferCount("completed", "none")).isEqualTo(1);
     }
 
     @Test
     @DisplayName("Should throw exception when source card has insufficient funds")
     void performTransfer_WhenInsufficientFunds_ShouldThrowException() {
         var request = new TransferRequestDto(fromCard.getId(), toCard.getId(), new BigDecimal("2000.00"));
-        when(cardRepository.findById(fromCard.getId())).thenReturn(Optional.of(fromCard));
-        when(cardRepository.findById(toCard.getId())).thenReturn(Optional.of(toCard));
+        when(cardRepository.findAllByIdAndUserIdForUpdate(List.of(fromCard.getId(), toCard.getId()), user.id()))
+                .thenReturn(List.of(fromCard, toCard));
 
         var exception = assertThrows(CardOperationException.class, () -> transferService.performTransfer(request, user));
         assertThat(exception.getMessage()).isEqualTo("Insufficient funds on the source card.");
         verify(cardRepository, never()).save(any());
+        verify(cardPageCache, never()).invalidate(any());
+        assertThat(transferCount("failed", "insufficient_funds")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should count the source card's shard balances before rejecting for insufficient funds")
+    void performTransfer_WhenShardsCoverTheAmount_ShouldSucceed() {
+        var request = new TransferRequestDto(fromCard.getId(), toCard.getId(), new BigDecimal("1200.00"));
+        when(cardRepository.findAllByIdAndUserIdForUpdate(List.of(fromCard.getId(), toCard.getId()), user.id()))
+                .thenReturn(List.of(fromCard, toCard));
+        doAnswer(invocation -> {
+            Card card = invocation.getArgument(0);
+            card.setBalance(card.getBalance().add(new BigDecimal("300.00")));
+            return null;
+        }).when(cardBalanceShardService).foldInto(fromCard);
+
+        assertDoesNotThrow(() -> transferService.performTransfer(request, user));
+
+        assertThat(fromCard.getBalance()).isEqualByComparingTo("100.00");
+        assertThat(toCard.getBalance()).isEqualByComparingTo("1700.00");
+    }
+
+    @Test
+    @DisplayName("Should lock only the source card and credit a balance shard when the destination is sharded")
+    void performTransfer_WhenDestinationIsSharded_ShouldCreditShard() {
+        var request = new TransferRequestDto(fromCard.getId(), toCard.getId(), new BigDecimal("100.00"));
+        when(cardBalanceShardService.isSharded(toCard.getId())).thenReturn(true);
+        when(cardRepository.findAllByIdAndUserIdForUpdate(List.of(fromCard.getId()), user.id())).thenReturn(List.of(fromCard));
+        when(cardRepository.findById(toCard.getId())).thenReturn(Optional.of(toCard));
+
+        assertDoesNotThrow(() -> transferService.performTransfer(request, user));
+
+        assertThat(fromCard.getBalance()).isEqualByComparingTo("900.00");
+        assertThat(toCard.getBalance()).isEqualByComparingTo("500.00");
+        verify(cardBalanceShardService).credit(toCard, request.amount());
+        verify(cardRepository).save(fromCard);
+        verify(cardRepository, never()).save(toCard);
+        verify(cardBalanceShardService, never()).foldInto(any());
+    }
+
+    @Test
+    @DisplayName("Should validate the sharded destination card before crediting it")
+    void performTransfer_WhenShardedDestinationIsMissing_ShouldThrowException() {
+        var request = new TransferRequestDto(fromCard.getId(), 99L, new BigDecimal("100.00"));
+        when(cardBalanceShardService.isSharded(99L)).thenReturn(true);
+        when(cardRepository.findAllByIdAndUserIdForUpdate(List.of(fromCard.getId()), user.id())).thenReturn(List.of(fromCard));
+        when(cardRepository.findById(99L)).thenReturn(Optional.empty());
+
+        var exception = assertThrows(CardOperationException.class, () -> transferService.performTransfer(request, user));
+        assertThat(exception.getMessage()).isEqualTo("Card with id 99 not found.");
+        verify(cardBalanceShardService, never()).credit(any(), any());
     }
 
     @Test
@@ -93,8 +177,8 @@ class TransferServiceTest {
     void performTransfer_WhenCardIsExpired_ShouldThrowException() {
         fromCard.setExpiryDate(LocalDate.now().minusDays(1));
         var request = new TransferRequestDto(fromCard.getId(), toCard.getId(), new BigDecimal("100.00"));
-        when(cardRepository.findById(fromCard.getId())).thenReturn(Optional.of(fromCard));
-        when(cardRepository.findById(toCard.getId())).thenReturn(Optional.of(toCard));
+        when(cardRepository.findAllByIdAndUserIdForUpdate(List.of(fromCard.getId(), toCard.getId()), user.id()))
+                .thenReturn(List.of(fromCard, toCard));
 
         var exception = assertThrows(CardOperationException.class, () -> transferService.performTransfer(request, user));
         assertThat(exception.getMessage()).isEqualTo("The source card has expired.");
@@ -106,11 +190,181 @@ class TransferServiceTest {
     void performTransfer_WhenCardIsNotActive_ShouldThrowException() {
         fromCard.setStatus(CardStatus.BLOCKED);
         var request = new TransferRequestDto(fromCard.getId(), toCard.getId(), new BigDecimal("100.00"));
-        when(cardRepository.findById(fromCard.getId())).thenReturn(Optional.of(fromCard));
-        when(cardRepository.findById(toCard.getId())).thenReturn(Optional.of(toCard));
+        when(cardRepository.findAllByIdAndUserIdForUpdate(List.of(fromCard.getId(), toCard.getId()), user.id()))
+                .thenReturn(List.of(fromCard, toCard));
 
         var exception = assertThrows(CardOperationException.class, () -> transferService.performTransfer(request, user));
         assertThat(exception.getMessage()).isEqualTo("The source card is not active.");
         verify(cardRepository, never()).save(any());
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Should throw exception when source and destination cards are the same")
+    void performTransfer_WhenCardsAreTheSame_ShouldThrowException() {
+        var request = new TransferRequestDto(fromCard.getId(), fromCard.getId(), new BigDecimal("100.00"));
+
+        var exception = assertThrows(CardOperationException.class, () -> transferService.performTransfer(request, user));
+        assertThat(exception.getMessage()).isEqualTo("Source and destination cards must be different.");
+        verify(cardRepository, never()).findAllByIdAndUserIdForUpdate(any(), any());
+    }
+
+    @Test
+    @DisplayName("Should throw exception when a card does not exist")
+    void performTransfer_WhenCardIsMissing_ShouldThrowException() {
+        var request = new TransferRequestDto(fromCard.getId(), 99L, new BigDecimal("100.00"));
+        when(cardRepository.findAllByIdAndUserIdForUpdate(List.of(fromCard.getId(), 99L), user.id())).thenReturn(List.of(fromCard));
+
+        var exception = assertThrows(CardOperationException.class, () -> transferService.performTransfer(request, user));
+        assertThat(exception.getMessage()).isEqualTo("Card with id 99 not found.");
+        verify(cardRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Should deny access to another user's card without locking it")
+    void performTransfer_WhenCardBelongsToAnotherUser_ShouldThrowAccessDenied() {
+        var request = new TransferRequestDto(fromCard.getId(), 30L, new BigDecimal("100.00"));
+        when(cardRepository.findAllByIdAndUserIdForUpdate(List.of(fromCard.getId(), 30L), user.id()))
+                .thenReturn(List.of(fromCard));
+        when(cardRepository.findUserIdById(30L)).thenReturn(Optional.of(2L));
+
+        var exception = assertThrows(CardOperationException.class, () -> transferService.performTransfer(request, user));
+        assertThat(exception.getMessage()).isEqualTo("Access denied to card 30");
+        verify(cardRepository, never()).findAllByIdForUpdate(any());
+        verify(cardRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Should run the transfer in a single database call when the database engine is selected")
+    void performTransfer_WithDatabaseEngine_ShouldDelegateToDatabaseFunction() {
+        ReflectionTestUtils.setField(transferService, "engine", TransferService.Engine.DATABASE);
+        var request = new TransferRequestDto(fromCard.getId(), toCard.getId(), new BigDecimal("100.00"));
+        when(cardRepository.transferBetweenCards(user.id(), fromCard.getId(), toCard.getId(), request.amount()))
+                .thenReturn(0);
+
+        assertDoesNotThrow(() -> transferService.performTransfer(request, user));
+
+        verify(cardRepository, never()).findAllByIdAndUserIdForUpdate(any(), any());
+        verify(cardRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Should map database engine result codes to the same messages as the JPA engine")
+    void performTransfer_WithDatabaseEngineFailure_ShouldThrowMappedException() {
+        ReflectionTestUtils.setField(transferService, "engine", TransferService.Engine.DATABASE);
+        var request = new TransferRequestDto(fromCard.getId(), toCard.getId(), new BigDecimal("2000.00"));
+        when(cardRepository.transferBetweenCards(user.id(), fromCard.getId(), toCard.getId(), request.amount()))
+                .thenReturn(8);
+
+        var exception = assertThrows(CardOperationException.class, () -> transferService.performTransfer(request, user));
+        assertThat(exception.getMessage()).isEqualTo("Insufficient funds on the source card.");
+        assertThat(meterRegistry.get("bank.transfers").tag("engine", "database")
+                .tag("reason", "insufficient_funds").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should lock all cards of a batch once and report each failed item in best-effort mode")
+    void performBatchTransfer_InBestEffortMode_ShouldApplyValidItemsAndReportFailures() {
+        var request = new BatchTransferRequestDto(BatchTransferMode.BEST_EFFORT, List.of(
+                new TransferRequestDto(fromCard.getId(), toCard.getId(), new BigDecimal("100.00")),
+                new TransferRequestDto(fromCard.getId(), toCard.getId(), new BigDecimal("5000.00")),
+                new TransferRequestDto(toCard.getId(), fromCard.getId(), new BigDecimal("50.00"))));
+        when(cardRepository.findAllByIdAndUserIdForUpdate(Set.of(fromCard.getId(), toCard.getId()), user.id()))
+                .thenReturn(List.of(fromCard, toCard));
+
+        BatchTransferResponseDto response = transferService.performBatchTransfer(request, user);
+
+        assertThat(response.committed()).isTrue();
+        assertThat(response.completed()).isEqualTo(2);
+        assertThat(response.failed()).isEqualTo(1);
+        assertThat(response.results()).extracting(TransferResultDto::status).containsExactly(
+                TransferResultDto.Status.COMPLETED, TransferResultDto.Status.FAILED, TransferResultDto.Status.COMPLETED);
+        assertThat(response.results().get(1).error()).isEqualTo("Insufficient funds on the source card.");
+        assertThat(fromCard.getBalance()).isEqualByComparingTo("950.00");
+        assertThat(toCard.getBalance()).isEqualByComparingTo("550.00");
+        verify(cardRepository, times(1)).findAllByIdAndUserIdForUpdate(any(), any());
+        verify(cardPageCache).invalidate(user.id());
+        verify(auditTrail, times(2)).record(eq(AuditAction.TRANSFER), any(), any());
+    }
+
+    @Test
+    @DisplayName("Should lock only the user's own cards of a batch and deny the items naming other users' cards")
+    void performBatchTransfer_WithAnotherUsersCard_ShouldNotLockIt() {
+        var request = new BatchTransferRequestDto(BatchTransferMode.BEST_EFFORT, List.of(
+                new TransferRequestDto(fromCard.getId(), 30L, new BigDecimal("100.00")),
+                new TransferRequestDto(fromCard.getId(), toCard.getId(), new BigDecimal("100.00"))));
+        when(cardRepository.findAllByIdAndUserIdForUpdate(Set.of(fromCard.getId(), toCard.getId(), 30L), user.id()))
+                .thenReturn(List.of(fromCard, toCard));
+        when(cardRepository.findUserIdById(30L)).thenReturn(Optional.of(2L));
+
+        BatchTransferResponseDto response = transferService.performBatchTransfer(request, user);
+
+        assertThat(response.results()).extracting(TransferResultDto::status).containsExactly(
+                TransferResultDto.Status.FAILED, TransferResultDto.Status.COMPLETED);
+        assertThat(response.results().get(0).error()).isEqualTo("Access denied to card 30");
+        verify(cardRepository, never()).findAllByIdForUpdate(any());
+    }
+
+    @Test
+    @DisplayName("Should roll back the whole batch on the first failure in all-or-nothing mode")
+    void performBatchTransfer_InAllOrNothingMode_ShouldFailWholeBatch() {
+        var request = new BatchTransferRequestDto(null, List.of(
+                new TransferRequestDto(fromCard.getId(), toCard.getId(), new BigDecimal("100.00")),
+                new TransferRequestDto(fromCard.getId(), fromCard.getId(), new BigDecimal("1.00")),
+                new TransferRequestDto(toCard.getId(), fromCard.getId(), new BigDecimal("50.00"))));
+        when(cardRepository.findAllByIdAndUserIdForUpdate(Set.of(fromCard.getId(), toCard.getId()), user.id()))
+                .thenReturn(List.of(fromCard, toCard));
+
+        var exception = assertThrows(BatchTransferException.class,
+                () -> transferService.performBatchTransfer(request, user));
+
+        assertThat(exception.getMessage()).isEqualTo("Transfer #1 failed: Source and destination cards must be different.");
+        assertThat(exception.getResponse().committed()).isFalse();
+        assertThat(exception.getResponse().results()).extracting(TransferResultDto::status).containsExactly(
+                TransferResultDto.Status.NOT_APPLIED, TransferResultDto.Status.FAILED, TransferResultDto.Status.NOT_APPLIED);
+    }
+
+    @Test
+    @DisplayName("Should reject a batch larger than the configured maximum")
+    void performBatchTransfer_WhenBatchTooLarge_ShouldThrowException() {
+        ReflectionTestUtils.setField(transferService, "maxBatchSize", 1);
+        var transfer = new TransferRequestDto(fromCard.getId(), toCard.getId(), new BigDecimal("1.00"));
+        var request = new BatchTransferRequestDto(BatchTransferMode.BEST_EFFORT, List.of(transfer, transfer));
+
+        var exception = assertThrows(CardOperationException.class,
+                () -> transferService.performBatchTransfer(request, user));
+        assertThat(exception.getMessage()).isEqualTo("Batch must not contain more than 1 transfers.");
+        verify(cardRepository, never()).findAllByIdAndUserIdForUpdate(any(), any());
+    }
+
+    @Test
+    @DisplayName("Should replay a completed idempotent transfer without locking or validating cards")
+    void performTransfer_WithReplayedIdempotencyKey_ShouldSkipTransfer() {
+        var request = new TransferRequestDto(fromCard.getId(), toCard.getId(), new BigDecimal("100.00"));
+        when(transferIdempotencyService.claimOrReplay(user.id(), "retry-1", request)).thenReturn(true);
+
+        boolean replayed = transferService.performTransfer(request, user, "retry-1");
+
+        assertThat(replayed).isTrue();
+        verify(cardRepository, never()).findAllByIdAndUserIdForUpdate(any(), any());
+        verify(cardRepository, never()).save(any());
+        verify(cardPageCache, never()).invalidate(any());
+    }
+
+    @Test
+    @DisplayName("Should perform the transfer when the idempotency key is new")
+    void performTransfer_WithNewIdempotencyKey_ShouldTransfer() {
+        var request = new TransferRequestDto(fromCard.getId(), toCard.getId(), new BigDecimal("100.00"));
+        when(transferIdempotencyService.claimOrReplay(user.id(), "retry-1", request)).thenReturn(false);
+        when(cardRepository.findAllByIdAndUserIdForUpdate(List.of(fromCard.getId(), toCard.getId()), user.id()))
+                .thenReturn(List.of(fromCard, toCard));
+
+        boolean replayed = transferService.performTransfer(request, user, "retry-1");
+
+        assertThat(replayed).isFalse();
+        assertThat(fromCard.getBalance()).isEqualByComparingTo("900.00");
+    }
+
+    private long transferCount(String outcome, String reason) {
+        return meterRegistry.get("bank.transfers").tag("outcome", outcome).tag("reason", reason).timer().count();
+    }
+}